@@ -0,0 +1,250 @@
+package net.ae97.pircboty;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.ae97.pircboty.api.TypedListener;
+import net.ae97.pircboty.api.events.MessageEvent;
+import net.ae97.pircboty.exception.IrcException;
+import net.ae97.pircboty.api.Event;
+import net.ae97.pircboty.api.Listener;
+import net.ae97.pircboty.managers.ListenerManager;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InputParserReplayBenchmark {
+
+    private static final String TRACE = "channel-traffic.txt";
+    private static final String[] PROLOGUE = {
+        ":Bench!bench@client-1.example.org JOIN #bench",
+        ":irc.example.net 353 Bench = #bench :Bench @alice bob carol dave",
+        ":irc.example.net 366 Bench #bench :End of /NAMES list."
+    };
+    @Param({"MESSAGES_ONLY", "EVERYTHING"})
+    public String subscribers;
+    private final List<String> trace = new ArrayList<>();
+    private DirectListenerManager listenerManager;
+    private ServerSocket serverSocket;
+    private Socket serverConnection;
+    private PircBotY bot;
+    private volatile Event lastEvent;
+
+    @Setup
+    public void setup() throws IOException, IrcException, InterruptedException {
+        PircBotY.getLogger().setLevel(java.util.logging.Level.WARNING);
+        try (InputStream traceStream = InputParserReplayBenchmark.class.getResourceAsStream(TRACE);
+                BufferedReader traceReader = new BufferedReader(new InputStreamReader(traceStream, StandardCharsets.UTF_8))) {
+            for (String curLine = traceReader.readLine(); curLine != null; curLine = traceReader.readLine()) {
+                if (!curLine.isEmpty()) {
+                    trace.add(curLine);
+                }
+            }
+        }
+        listenerManager = new DirectListenerManager();
+        if (subscribers.equals("EVERYTHING")) {
+            listenerManager.addListener(event -> lastEvent = event);
+        } else {
+            listenerManager.addListener(new MessageListener(this));
+        }
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        bot = new PircBotY(new Configuration.Builder<PircBotY>()
+                .setName("Bench")
+                .setServer("127.0.0.1", serverSocket.getLocalPort())
+                .setMessageDelay(0)
+                .setAutoReconnect(false)
+                .setCapEnabled(false)
+                .setKeepAliveInterval(0)
+                .setShutdownHookEnabled(false)
+                .setListenerManager(listenerManager)
+                .buildConfiguration());
+        Thread acceptThread = new Thread(this::acceptBot, "bench-server");
+        acceptThread.start();
+        bot.startBot();
+        acceptThread.join();
+        while (!bot.isLoggedIn()) {
+            Thread.sleep(10);
+        }
+        for (String curLine : PROLOGUE) {
+            bot.getInputParser().handleLine(curLine);
+        }
+    }
+
+    private void acceptBot() {
+        try {
+            serverConnection = serverSocket.accept();
+            Thread drainThread = new Thread(() -> {
+                try {
+                    InputStream input = serverConnection.getInputStream();
+                    byte[] buffer = new byte[8192];
+                    while (input.read(buffer) != -1) {
+                    }
+                } catch (IOException e) {
+                }
+            }, "bench-server-drain");
+            drainThread.setDaemon(true);
+            drainThread.start();
+            Writer writer = new OutputStreamWriter(serverConnection.getOutputStream(), StandardCharsets.UTF_8);
+            writer.write(":irc.example.net 001 Bench :Welcome to the example network Bench\r\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not accept benchmark connection", e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        bot.stopBotReconnect();
+        serverConnection.close();
+        serverSocket.close();
+        bot.awaitDisconnect(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void replayTrace(EventIds eventIds) throws IOException, IrcException {
+        long firstId = listenerManager.getCurrentId();
+        for (String curLine : trace) {
+            bot.getInputParser().handleLine(curLine);
+        }
+        eventIds.eventIds += listenerManager.getCurrentId() - firstId;
+        eventIds.lines += trace.size();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EventIds {
+
+        public long eventIds;
+        public long lines;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            eventIds = 0;
+            lines = 0;
+        }
+    }
+
+    private static class MessageListener implements TypedListener {
+
+        private final InputParserReplayBenchmark benchmark;
+
+        public MessageListener(InputParserReplayBenchmark benchmark) {
+            this.benchmark = benchmark;
+        }
+
+        @Override
+        public Set<Class<?>> getEventTypes() {
+            return ImmutableSet.<Class<?>>of(MessageEvent.class);
+        }
+
+        @Override
+        public void onEvent(Event event) throws Exception {
+            benchmark.lastEvent = event;
+        }
+    }
+
+    private static class DirectListenerManager implements ListenerManager {
+
+        private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
+        private final AtomicLong currentId = new AtomicLong();
+
+        @Override
+        public void dispatchEvent(Event event) {
+            for (Listener curListener : listeners) {
+                if (isSubscribed(curListener, event.getClass())) {
+                    try {
+                        curListener.onEvent(event);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Listener failed on " + event, e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasSubscribers(Class<? extends Event> eventClass) {
+            for (Listener curListener : listeners) {
+                if (isSubscribed(curListener, eventClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isSubscribed(Listener listener, Class<?> eventClass) {
+            if (!(listener instanceof TypedListener)) {
+                return true;
+            }
+            for (Class<?> curType : ((TypedListener) listener).getEventTypes()) {
+                if (curType.isAssignableFrom(eventClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean addListener(Listener listener) {
+            return listeners.add(listener);
+        }
+
+        @Override
+        public boolean removeListener(Listener listener) {
+            return listeners.remove(listener);
+        }
+
+        @Override
+        public boolean listenerExists(Listener listener) {
+            return listeners.contains(listener);
+        }
+
+        @Override
+        public Set<Listener> getListeners() {
+            return ImmutableSet.copyOf(listeners);
+        }
+
+        @Override
+        public void setCurrentId(long currentId) {
+            this.currentId.set(currentId);
+        }
+
+        @Override
+        public long getCurrentId() {
+            return currentId.get();
+        }
+
+        @Override
+        public long incrementCurrentId() {
+            return currentId.getAndIncrement();
+        }
+
+        @Override
+        public void shutdown(PircBotY bot) {
+        }
+    }
+}
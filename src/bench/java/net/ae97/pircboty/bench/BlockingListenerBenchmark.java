@@ -0,0 +1,77 @@
+package net.ae97.pircboty.bench;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.ae97.pircboty.api.Event;
+import net.ae97.pircboty.managers.BoundedListenerExecutor;
+import net.ae97.pircboty.managers.ListenerManager;
+import net.ae97.pircboty.managers.ThreadedListenerManager;
+import net.ae97.pircboty.managers.VirtualThreadListenerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockingListenerBenchmark {
+
+    private static final int EVENTS = 2000;
+    @Param({"THREADED", "BOUNDED", "VIRTUAL"})
+    public String manager;
+    @Param({"1", "10"})
+    public long blockMillis;
+    private ThreadedListenerManager listenerManager;
+    private volatile CountDownLatch delivered;
+
+    @Setup
+    public void setup() {
+        switch (manager) {
+            case "BOUNDED":
+                listenerManager = new ThreadedListenerManager(new BoundedListenerExecutor(Runtime.getRuntime().availableProcessors() * 4, EVENTS, BoundedListenerExecutor.OverloadPolicy.BLOCK));
+                break;
+            case "VIRTUAL":
+                VirtualThreadListenerManager virtualManager = new VirtualThreadListenerManager();
+                System.out.println("Using virtual threads: " + virtualManager.isUsingVirtualThreads());
+                listenerManager = virtualManager;
+                break;
+            default:
+                listenerManager = new ThreadedListenerManager();
+        }
+        listenerManager.addListener(event -> {
+            Thread.sleep(blockMillis);
+            delivered.countDown();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        listenerManager.shutdown();
+    }
+
+    @Benchmark
+    public void dispatchBlocking() throws InterruptedException {
+        delivered = new CountDownLatch(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            listenerManager.dispatchEvent(new BenchmarkEvent(listenerManager));
+        }
+        delivered.await();
+    }
+
+    private static class BenchmarkEvent extends Event {
+
+        public BenchmarkEvent(ListenerManager listenerManager) {
+            super(listenerManager);
+        }
+
+        @Override
+        public void respond(String response) {
+        }
+    }
+}
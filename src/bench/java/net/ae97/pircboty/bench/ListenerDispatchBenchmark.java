@@ -0,0 +1,63 @@
+package net.ae97.pircboty.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.ae97.pircboty.api.Event;
+import net.ae97.pircboty.managers.ListenerManager;
+import net.ae97.pircboty.managers.RingBufferListenerManager;
+import net.ae97.pircboty.managers.ThreadedListenerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ListenerDispatchBenchmark {
+
+    @Param({"THREADED", "BLOCKING", "YIELDING", "BUSY_SPIN"})
+    public String manager;
+    private final AtomicLong delivered = new AtomicLong();
+    private ListenerManager listenerManager;
+
+    @Setup
+    public void setup() {
+        if (manager.equals("THREADED")) {
+            listenerManager = new ThreadedListenerManager();
+        } else {
+            listenerManager = new RingBufferListenerManager(1024 * 64, RingBufferListenerManager.WaitStrategy.valueOf(manager));
+        }
+        listenerManager.addListener(event -> delivered.incrementAndGet());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (listenerManager instanceof RingBufferListenerManager) {
+            ((RingBufferListenerManager) listenerManager).shutdown();
+        } else {
+            ((ThreadedListenerManager) listenerManager).shutdown();
+        }
+    }
+
+    @Benchmark
+    public void dispatch() {
+        listenerManager.dispatchEvent(new BenchmarkEvent(listenerManager));
+    }
+
+    private static class BenchmarkEvent extends Event {
+
+        public BenchmarkEvent(ListenerManager listenerManager) {
+            super(listenerManager);
+        }
+
+        @Override
+        public void respond(String response) {
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package net.ae97.pircboty;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import net.ae97.pircboty.api.ListenerAdapter;
+import net.ae97.pircboty.api.events.ConnectEvent;
+import net.ae97.pircboty.api.events.DisconnectEvent;
+import net.ae97.pircboty.api.events.JoinEvent;
+import net.ae97.pircboty.exception.IrcException;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class BotCluster {
+
+    private static final int VIRTUAL_NODES = 64;
+    private static final long REBALANCE_DELAY = 1000 * 5;
+    private final HashFunction hashFunction = Hashing.murmur3_32();
+    private final Configuration<PircBotY> configuration;
+    private final List<PircBotY> bots;
+    private final Map<String, String> channels = new LinkedHashMap<>();
+    private final TreeMap<Integer, PircBotY> ring = new TreeMap<>();
+    private final ExecutorService startPool;
+    private final ScheduledExecutorService rebalancer;
+    private boolean stopped = false;
+
+    public BotCluster(Configuration<PircBotY> configuration, int connections) {
+        Validate.notNull(configuration, "Configuration cannot be null");
+        Validate.isTrue(connections > 0, "Connections must be positive");
+        this.configuration = configuration;
+        channels.putAll(configuration.getAutoJoinChannels());
+        ImmutableList.Builder<PircBotY> botsBuilder = ImmutableList.builder();
+        for (int i = 0; i < connections; i++) {
+            Configuration.Builder<PircBotY> shardBuilder = new Configuration.Builder<>(configuration);
+            shardBuilder.getAutoJoinChannels().clear();
+            if (i > 0) {
+                shardBuilder.setName(configuration.getName() + i);
+            }
+            botsBuilder.add(new PircBotY(shardBuilder.buildConfiguration()));
+        }
+        this.bots = botsBuilder.build();
+        this.startPool = Executors.newCachedThreadPool(new BasicThreadFactory.Builder()
+                .namingPattern("botCluster-start%d")
+                .daemon(true)
+                .build());
+        this.rebalancer = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("botCluster-rebalance")
+                .daemon(true)
+                .build());
+        configuration.getListenerManager().addListener(new ClusterListener());
+    }
+
+    public void start() {
+        for (PircBotY curBot : bots) {
+            startPool.execute(() -> {
+                try {
+                    curBot.startBot();
+                } catch (IOException | IrcException e) {
+                    PircBotY.getLogger().log(Level.SEVERE, "Could not start cluster connection " + curBot.getBotId(), e);
+                    curBot.scheduleReconnect();
+                }
+            });
+        }
+    }
+
+    public void stop() {
+        synchronized (ring) {
+            stopped = true;
+            ring.clear();
+        }
+        for (PircBotY curBot : bots) {
+            curBot.stopBotReconnect();
+            if (curBot.isConnected()) {
+                curBot.sendIRC().quitServer();
+            }
+        }
+        startPool.shutdownNow();
+        rebalancer.shutdownNow();
+    }
+
+    public void addChannel(String channel) {
+        addChannel(channel, "");
+    }
+
+    public void addChannel(String channel, String key) {
+        Validate.notBlank(channel, "Channel cannot be blank");
+        PircBotY owner;
+        synchronized (ring) {
+            channels.put(channel, (key == null) ? "" : key);
+            owner = getOwner(channel);
+        }
+        if (owner == null) {
+            return;
+        }
+        if (key == null || key.isEmpty()) {
+            owner.sendIRC().joinChannel(channel);
+        } else {
+            owner.sendIRC().joinChannel(channel, key);
+        }
+    }
+
+    public void removeChannel(String channel) {
+        synchronized (ring) {
+            channels.remove(channel);
+        }
+        for (PircBotY curBot : getConnectedBots()) {
+            if (curBot.getUserChannelDao().channelExists(channel)) {
+                curBot.getUserChannelDao().getChannel(channel).send().part();
+            }
+        }
+    }
+
+    public PircBotY getOwner(String channel) {
+        synchronized (ring) {
+            if (ring.isEmpty()) {
+                return null;
+            }
+            int hash = hash(channel.toLowerCase(configuration.getLocale()));
+            SortedMap<Integer, PircBotY> tail = ring.tailMap(hash);
+            return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+        }
+    }
+
+    public PircBotY getBotForTarget(String target) {
+        Validate.notBlank(target, "Target cannot be blank");
+        if (configuration.getChannelPrefixes().indexOf(target.charAt(0)) >= 0) {
+            for (PircBotY curBot : getConnectedBots()) {
+                if (curBot.getUserChannelDao().channelExists(target)) {
+                    return curBot;
+                }
+            }
+        }
+        return getOwner(target);
+    }
+
+    public void sendMessage(String target, String message) {
+        PircBotY bot = getBotForTarget(target);
+        Validate.validState(bot != null, "No connected bot available to message %s", target);
+        bot.sendIRC().message(target, message);
+    }
+
+    public void sendNotice(String target, String notice) {
+        PircBotY bot = getBotForTarget(target);
+        Validate.validState(bot != null, "No connected bot available to notice %s", target);
+        bot.sendIRC().notice(target, notice);
+    }
+
+    public Channel getChannel(String channel) {
+        PircBotY bot = getBotForTarget(channel);
+        if (bot == null || !bot.getUserChannelDao().channelExists(channel)) {
+            return null;
+        }
+        return bot.getUserChannelDao().getChannel(channel);
+    }
+
+    public List<PircBotY> getBots() {
+        return bots;
+    }
+
+    public List<PircBotY> getConnectedBots() {
+        List<PircBotY> connected = new ArrayList<>();
+        for (PircBotY curBot : bots) {
+            if (curBot.isConnected()) {
+                connected.add(curBot);
+            }
+        }
+        return connected;
+    }
+
+    public Map<String, String> getChannels() {
+        synchronized (ring) {
+            return new LinkedHashMap<>(channels);
+        }
+    }
+
+    protected void addToRing(PircBotY bot) {
+        synchronized (ring) {
+            if (stopped) {
+                return;
+            }
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(bot.getBotId() + "#" + i), bot);
+            }
+        }
+    }
+
+    protected void removeFromRing(PircBotY bot) {
+        synchronized (ring) {
+            ring.values().removeIf(curBot -> curBot == bot);
+        }
+    }
+
+    protected void rebalance() {
+        Map<PircBotY, Map<String, String>> joins = new HashMap<>();
+        Map<PircBotY, List<String>> parts = new HashMap<>();
+        List<PircBotY> connected = getConnectedBots();
+        synchronized (ring) {
+            if (stopped) {
+                return;
+            }
+            for (Map.Entry<String, String> curChannel : channels.entrySet()) {
+                PircBotY owner = getOwner(curChannel.getKey());
+                if (owner == null || !connected.contains(owner)) {
+                    continue;
+                }
+                if (!owner.getUserChannelDao().channelExists(curChannel.getKey())) {
+                    joins.computeIfAbsent(owner, bot -> new LinkedHashMap<>()).put(curChannel.getKey(), curChannel.getValue());
+                    continue;
+                }
+                for (PircBotY curBot : connected) {
+                    if (curBot != owner && curBot.getUserChannelDao().channelExists(curChannel.getKey())) {
+                        parts.computeIfAbsent(curBot, bot -> new ArrayList<>()).add(curChannel.getKey());
+                    }
+                }
+            }
+        }
+        for (Map.Entry<PircBotY, Map<String, String>> curJoin : joins.entrySet()) {
+            PircBotY.getLogger().log(Level.INFO, "Moving " + curJoin.getValue().size() + " channels to cluster connection " + curJoin.getKey().getBotId());
+            curJoin.getKey().sendIRC().joinChannels(curJoin.getValue());
+        }
+        for (Map.Entry<PircBotY, List<String>> curPart : parts.entrySet()) {
+            for (String curChannel : curPart.getValue()) {
+                curPart.getKey().getUserChannelDao().getChannel(curChannel).send().part();
+            }
+        }
+    }
+
+    protected void scheduleRebalance(long delay) {
+        try {
+            rebalancer.schedule(() -> {
+                try {
+                    rebalance();
+                } catch (RuntimeException e) {
+                    PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when rebalancing cluster channels", e);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            PircBotY.getLogger().log(Level.FINE, "Cluster rebalance was rejected", e);
+        }
+    }
+
+    protected void partDuplicates(PircBotY owner, String channel) {
+        synchronized (ring) {
+            if (stopped || getOwner(channel) != owner || channels.keySet().stream().noneMatch(channel::equalsIgnoreCase)) {
+                return;
+            }
+        }
+        for (PircBotY curBot : getConnectedBots()) {
+            if (curBot != owner && curBot.getUserChannelDao().channelExists(channel)) {
+                PircBotY.getLogger().log(Level.INFO, "Parting " + channel + " on cluster connection " + curBot.getBotId() + " now that its owner has joined");
+                curBot.getUserChannelDao().getChannel(channel).send().part();
+            }
+        }
+    }
+
+    private int hash(String value) {
+        return hashFunction.hashString(value.toLowerCase(Locale.ENGLISH), StandardCharsets.UTF_8).asInt();
+    }
+
+    private class ClusterListener extends ListenerAdapter {
+
+        @Override
+        public void onConnect(ConnectEvent event) throws Exception {
+            PircBotY bot = event.getBot();
+            if (!bots.contains(bot)) {
+                return;
+            }
+            addToRing(bot);
+            scheduleRebalance(REBALANCE_DELAY);
+        }
+
+        @Override
+        public void onJoin(JoinEvent event) throws Exception {
+            PircBotY bot = event.getBot();
+            if (bots.contains(bot) && event.getUser().getNick().equalsIgnoreCase(bot.getNick())) {
+                partDuplicates(bot, event.getChannel().getName());
+            }
+        }
+
+        @Override
+        public void onDisconnect(DisconnectEvent event) throws Exception {
+            PircBotY bot = event.getBot();
+            if (!bots.contains(bot)) {
+                return;
+            }
+            removeFromRing(bot);
+            scheduleRebalance(0);
+        }
+    }
+}
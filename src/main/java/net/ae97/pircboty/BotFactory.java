@@ -8,6 +8,7 @@ import net.ae97.pircboty.dcc.ReceiveChat;
 import net.ae97.pircboty.dcc.ReceiveFileTransfer;
 import net.ae97.pircboty.dcc.SendChat;
 import net.ae97.pircboty.dcc.SendFileTransfer;
+import net.ae97.pircboty.output.OutboundQueue;
 import net.ae97.pircboty.output.OutputCAP;
 import net.ae97.pircboty.output.OutputChannel;
 import net.ae97.pircboty.output.OutputDCC;
@@ -23,6 +24,22 @@ public abstract class BotFactory {
         return new OutputRaw(bot);
     }
 
+    public OutboundQueue createOutboundQueue(PircBotY bot) {
+        return new OutboundQueue(bot);
+    }
+
+    public SocketConnector createSocketConnector(PircBotY bot) {
+        return new SocketConnector(bot);
+    }
+
+    public KeepAlive createKeepAlive(PircBotY bot) {
+        return new KeepAlive(bot);
+    }
+
+    public RequestTracker createRequestTracker(PircBotY bot) {
+        return new RequestTracker(bot);
+    }
+
     public OutputCAP createOutputCAP(PircBotY bot) {
         return new OutputCAP(bot);
     }
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import net.ae97.pircboty.output.OutputChannel;
 import net.ae97.pircboty.snapshot.ChannelSnapshot;
 import org.apache.commons.lang3.concurrent.AtomicSafeInitializer;
@@ -215,14 +216,11 @@ public class Channel {
             return mode;
         }
         try {
-            if (modeLatch == null || modeLatch.getCount() == 0) {
-                modeLatch = new CountDownLatch(1);
-            }
-            bot.sendRaw().rawLine("MODE " + getName());
-            modeLatch.await();
-            return mode;
+            return bot.getRequestTracker().mode(getName()).get();
         } catch (InterruptedException e) {
             throw new RuntimeException("Waiting for mode response interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Could not get mode of " + getName(), e.getCause());
         }
     }
 
@@ -1,5 +1,6 @@
 package net.ae97.pircboty;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -40,15 +41,31 @@ public class Configuration<PircBotY> {
     private final String serverHostname;
     private final int serverPort;
     private final String serverPassword;
+    private final List<ServerEntry> alternateServers;
     private final SocketFactory socketFactory;
     private final InetAddress localAddress;
     private final Charset encoding;
     private final Locale locale;
     private final int socketTimeout;
+    private final int connectTimeout;
+    private final long connectAttemptDelay;
+    private final HostResolver hostResolver;
+    private final long keepAliveInterval;
+    private final int keepAliveMaxMissed;
+    private final long requestTimeout;
     private final int maxLineLength;
     private final boolean autoSplitMessage;
     private final boolean autoNickChange;
     private final long messageDelay;
+    private final long reconnectDelay;
+    private final long reconnectMaxDelay;
+    private final boolean preserveStateOnReconnect;
+    private final long modeStackDelay;
+    private final boolean outboundQueueEnabled;
+    private final int outboundQueueMaxSize;
+    private final long outboundQueueTtl;
+    private final boolean outboundQueueDeduplicate;
+    private final File outboundQueueFile;
     private final boolean shutdownHookEnabled;
     private final Map<String, String> autoJoinChannels;
     private final boolean identServerEnabled;
@@ -88,6 +105,17 @@ public class Configuration<PircBotY> {
         if (builder.getNickservPassword() != null) {
             Validate.notEmpty(builder.getNickservPassword(), "Nickserv password cannot be empty");
         }
+        Validate.isTrue(builder.getModeStackDelay() >= 0, "Mode stack delay cannot be negative");
+        Validate.isTrue(builder.getOutboundQueueMaxSize() > 0, "Outbound queue max size must be positive");
+        Validate.isTrue(builder.getOutboundQueueTtl() >= 0, "Outbound queue TTL must be positive");
+        Validate.isTrue(builder.getReconnectDelay() > 0, "Reconnect delay must be positive");
+        Validate.isTrue(builder.getReconnectMaxDelay() >= builder.getReconnectDelay(), "Reconnect max delay must not be less than reconnect delay");
+        Validate.isTrue(builder.getConnectTimeout() >= 0, "Connect timeout must be positive");
+        Validate.isTrue(builder.getConnectAttemptDelay() >= 0, "Connect attempt delay must be positive");
+        Validate.isTrue(builder.getKeepAliveInterval() >= 0, "Keep alive interval must be positive");
+        Validate.isTrue(builder.getKeepAliveMaxMissed() > 0, "Keep alive max missed must be positive");
+        Validate.notNull(builder.getHostResolver(), "Must specify host resolver");
+        Validate.isTrue(builder.getRequestTimeout() > 0, "Request timeout must be positive");
         Validate.notNull(builder.getListenerManager(), "Must specify listener manager");
         Validate.notNull(builder.getBotFactory(), "Must specify bot factory");
         this.webIrcEnabled = builder.isWebIrcEnabled();
@@ -111,15 +139,31 @@ public class Configuration<PircBotY> {
         this.serverHostname = builder.getServerHostname();
         this.serverPort = builder.getServerPort();
         this.serverPassword = builder.getServerPassword();
+        this.alternateServers = new ArrayList<>(builder.getAlternateServers());
         this.socketFactory = builder.getSocketFactory();
         this.localAddress = builder.getLocalAddress();
         this.encoding = builder.getEncoding();
         this.locale = builder.getLocale();
         this.socketTimeout = builder.getSocketTimeout();
+        this.connectTimeout = builder.getConnectTimeout();
+        this.connectAttemptDelay = builder.getConnectAttemptDelay();
+        this.hostResolver = builder.getHostResolver();
+        this.keepAliveInterval = builder.getKeepAliveInterval();
+        this.keepAliveMaxMissed = builder.getKeepAliveMaxMissed();
+        this.requestTimeout = builder.getRequestTimeout();
         this.maxLineLength = builder.getMaxLineLength();
         this.autoSplitMessage = builder.isAutoSplitMessage();
         this.autoNickChange = builder.isAutoNickChange();
         this.messageDelay = builder.getMessageDelay();
+        this.reconnectDelay = builder.getReconnectDelay();
+        this.reconnectMaxDelay = builder.getReconnectMaxDelay();
+        this.preserveStateOnReconnect = builder.isPreserveStateOnReconnect();
+        this.modeStackDelay = builder.getModeStackDelay();
+        this.outboundQueueEnabled = builder.isOutboundQueueEnabled();
+        this.outboundQueueMaxSize = builder.getOutboundQueueMaxSize();
+        this.outboundQueueTtl = builder.getOutboundQueueTtl();
+        this.outboundQueueDeduplicate = builder.isOutboundQueueDeduplicate();
+        this.outboundQueueFile = builder.getOutboundQueueFile();
         this.identServerEnabled = builder.isIdentServerEnabled();
         this.identServerPort = builder.getIdentServerPort();
         this.identServerIP = builder.getIdentServerIP();
@@ -221,6 +265,17 @@ public class Configuration<PircBotY> {
         return serverPassword;
     }
 
+    public List<ServerEntry> getAlternateServers() {
+        return alternateServers;
+    }
+
+    public List<ServerEntry> getServers() {
+        List<ServerEntry> servers = new ArrayList<>(alternateServers.size() + 1);
+        servers.add(new ServerEntry(serverHostname, serverPort));
+        servers.addAll(alternateServers);
+        return servers;
+    }
+
     public SocketFactory getSocketFactory() {
         return socketFactory;
     }
@@ -241,6 +296,30 @@ public class Configuration<PircBotY> {
         return socketTimeout;
     }
 
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public long getConnectAttemptDelay() {
+        return connectAttemptDelay;
+    }
+
+    public HostResolver getHostResolver() {
+        return hostResolver;
+    }
+
+    public long getKeepAliveInterval() {
+        return keepAliveInterval;
+    }
+
+    public int getKeepAliveMaxMissed() {
+        return keepAliveMaxMissed;
+    }
+
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
     public int getMaxLineLength() {
         return maxLineLength;
     }
@@ -257,6 +336,42 @@ public class Configuration<PircBotY> {
         return messageDelay;
     }
 
+    public long getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    public long getReconnectMaxDelay() {
+        return reconnectMaxDelay;
+    }
+
+    public boolean isPreserveStateOnReconnect() {
+        return preserveStateOnReconnect;
+    }
+
+    public long getModeStackDelay() {
+        return modeStackDelay;
+    }
+
+    public boolean isOutboundQueueEnabled() {
+        return outboundQueueEnabled;
+    }
+
+    public int getOutboundQueueMaxSize() {
+        return outboundQueueMaxSize;
+    }
+
+    public long getOutboundQueueTtl() {
+        return outboundQueueTtl;
+    }
+
+    public boolean isOutboundQueueDeduplicate() {
+        return outboundQueueDeduplicate;
+    }
+
+    public File getOutboundQueueFile() {
+        return outboundQueueFile;
+    }
+
     public boolean isShutdownHookEnabled() {
         return shutdownHookEnabled;
     }
@@ -328,15 +443,31 @@ public class Configuration<PircBotY> {
         private String serverHostname = null;
         private int serverPort = 6667;
         private String serverPassword = null;
+        private final List<ServerEntry> alternateServers = new LinkedList<>();
         private SocketFactory socketFactory = SocketFactory.getDefault();
         private InetAddress localAddress = null;
         private Charset encoding = Charset.defaultCharset();
         private Locale locale = Locale.getDefault();
         private int socketTimeout = 1000 * 60 * 5;
+        private int connectTimeout = 1000 * 30;
+        private long connectAttemptDelay = 250;
+        private HostResolver hostResolver = HostResolver.getDefault();
+        private long keepAliveInterval = 1000 * 60;
+        private int keepAliveMaxMissed = 2;
+        private long requestTimeout = 1000 * 30;
         private int maxLineLength = 512;
         private boolean autoSplitMessage = true;
         private boolean autoNickChange = false;
         private long messageDelay = 1000;
+        private long reconnectDelay = 1000;
+        private long reconnectMaxDelay = 1000 * 60 * 5;
+        private boolean preserveStateOnReconnect = false;
+        private long modeStackDelay = 0;
+        private boolean outboundQueueEnabled = false;
+        private int outboundQueueMaxSize = 1000;
+        private long outboundQueueTtl = 0;
+        private boolean outboundQueueDeduplicate = false;
+        private File outboundQueueFile = null;
         private boolean shutdownHookEnabled = true;
         private final Map<String, String> autoJoinChannels = new HashMap<>();
         private boolean identServerEnabled = false;
@@ -353,6 +484,7 @@ public class Configuration<PircBotY> {
         public Builder() {
             capHandlers.add(new EnableCapHandler("multi-prefix", true));
             capHandlers.add(new EnableCapHandler("away-notify", true));
+            capHandlers.add(new EnableCapHandler("account-notify", true));
             channelModeHandlers.addAll(InputParser.getDefaultChannelModeHandlers());
         }
 
@@ -378,15 +510,31 @@ public class Configuration<PircBotY> {
             this.serverHostname = configuration.getServerHostname();
             this.serverPort = configuration.getServerPort();
             this.serverPassword = configuration.getServerPassword();
+            this.alternateServers.addAll(configuration.getAlternateServers());
             this.socketFactory = configuration.getSocketFactory();
             this.localAddress = configuration.getLocalAddress();
             this.encoding = configuration.getEncoding();
             this.locale = configuration.getLocale();
             this.socketTimeout = configuration.getSocketTimeout();
+            this.connectTimeout = configuration.getConnectTimeout();
+            this.connectAttemptDelay = configuration.getConnectAttemptDelay();
+            this.hostResolver = configuration.getHostResolver();
+            this.keepAliveInterval = configuration.getKeepAliveInterval();
+            this.keepAliveMaxMissed = configuration.getKeepAliveMaxMissed();
+            this.requestTimeout = configuration.getRequestTimeout();
             this.maxLineLength = configuration.getMaxLineLength();
             this.autoSplitMessage = configuration.isAutoSplitMessage();
             this.autoNickChange = configuration.isAutoNickChange();
             this.messageDelay = configuration.getMessageDelay();
+            this.reconnectDelay = configuration.getReconnectDelay();
+            this.reconnectMaxDelay = configuration.getReconnectMaxDelay();
+            this.preserveStateOnReconnect = configuration.isPreserveStateOnReconnect();
+            this.modeStackDelay = configuration.getModeStackDelay();
+            this.outboundQueueEnabled = configuration.isOutboundQueueEnabled();
+            this.outboundQueueMaxSize = configuration.getOutboundQueueMaxSize();
+            this.outboundQueueTtl = configuration.getOutboundQueueTtl();
+            this.outboundQueueDeduplicate = configuration.isOutboundQueueDeduplicate();
+            this.outboundQueueFile = configuration.getOutboundQueueFile();
             this.listenerManager = configuration.getListenerManager();
             this.nickservPassword = configuration.getNickservPassword();
             this.autoReconnect = configuration.isAutoReconnect();
@@ -423,15 +571,31 @@ public class Configuration<PircBotY> {
             this.serverHostname = otherBuilder.getServerHostname();
             this.serverPort = otherBuilder.getServerPort();
             this.serverPassword = otherBuilder.getServerPassword();
+            this.alternateServers.addAll(otherBuilder.getAlternateServers());
             this.socketFactory = otherBuilder.getSocketFactory();
             this.localAddress = otherBuilder.getLocalAddress();
             this.encoding = otherBuilder.getEncoding();
             this.locale = otherBuilder.getLocale();
             this.socketTimeout = otherBuilder.getSocketTimeout();
+            this.connectTimeout = otherBuilder.getConnectTimeout();
+            this.connectAttemptDelay = otherBuilder.getConnectAttemptDelay();
+            this.hostResolver = otherBuilder.getHostResolver();
+            this.keepAliveInterval = otherBuilder.getKeepAliveInterval();
+            this.keepAliveMaxMissed = otherBuilder.getKeepAliveMaxMissed();
+            this.requestTimeout = otherBuilder.getRequestTimeout();
             this.maxLineLength = otherBuilder.getMaxLineLength();
             this.autoSplitMessage = otherBuilder.isAutoSplitMessage();
             this.autoNickChange = otherBuilder.isAutoNickChange();
             this.messageDelay = otherBuilder.getMessageDelay();
+            this.reconnectDelay = otherBuilder.getReconnectDelay();
+            this.reconnectMaxDelay = otherBuilder.getReconnectMaxDelay();
+            this.preserveStateOnReconnect = otherBuilder.isPreserveStateOnReconnect();
+            this.modeStackDelay = otherBuilder.getModeStackDelay();
+            this.outboundQueueEnabled = otherBuilder.isOutboundQueueEnabled();
+            this.outboundQueueMaxSize = otherBuilder.getOutboundQueueMaxSize();
+            this.outboundQueueTtl = otherBuilder.getOutboundQueueTtl();
+            this.outboundQueueDeduplicate = otherBuilder.isOutboundQueueDeduplicate();
+            this.outboundQueueFile = otherBuilder.getOutboundQueueFile();
             this.listenerManager = otherBuilder.getListenerManager();
             this.nickservPassword = otherBuilder.getNickservPassword();
             this.autoReconnect = otherBuilder.isAutoReconnect();
@@ -576,6 +740,36 @@ public class Configuration<PircBotY> {
             return this;
         }
 
+        public Builder<PircBotY> setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder<PircBotY> setConnectAttemptDelay(long connectAttemptDelay) {
+            this.connectAttemptDelay = connectAttemptDelay;
+            return this;
+        }
+
+        public Builder<PircBotY> setHostResolver(HostResolver hostResolver) {
+            this.hostResolver = hostResolver;
+            return this;
+        }
+
+        public Builder<PircBotY> setKeepAliveInterval(long keepAliveInterval) {
+            this.keepAliveInterval = keepAliveInterval;
+            return this;
+        }
+
+        public Builder<PircBotY> setKeepAliveMaxMissed(int keepAliveMaxMissed) {
+            this.keepAliveMaxMissed = keepAliveMaxMissed;
+            return this;
+        }
+
+        public Builder<PircBotY> setRequestTimeout(long requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
         public Builder<PircBotY> setMaxLineLength(int maxLineLength) {
             this.maxLineLength = maxLineLength;
             return this;
@@ -596,6 +790,51 @@ public class Configuration<PircBotY> {
             return this;
         }
 
+        public Builder<PircBotY> setReconnectDelay(long reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+            return this;
+        }
+
+        public Builder<PircBotY> setReconnectMaxDelay(long reconnectMaxDelay) {
+            this.reconnectMaxDelay = reconnectMaxDelay;
+            return this;
+        }
+
+        public Builder<PircBotY> setPreserveStateOnReconnect(boolean preserveStateOnReconnect) {
+            this.preserveStateOnReconnect = preserveStateOnReconnect;
+            return this;
+        }
+
+        public Builder<PircBotY> setModeStackDelay(long modeStackDelay) {
+            this.modeStackDelay = modeStackDelay;
+            return this;
+        }
+
+        public Builder<PircBotY> setOutboundQueueEnabled(boolean outboundQueueEnabled) {
+            this.outboundQueueEnabled = outboundQueueEnabled;
+            return this;
+        }
+
+        public Builder<PircBotY> setOutboundQueueMaxSize(int outboundQueueMaxSize) {
+            this.outboundQueueMaxSize = outboundQueueMaxSize;
+            return this;
+        }
+
+        public Builder<PircBotY> setOutboundQueueTtl(long outboundQueueTtl) {
+            this.outboundQueueTtl = outboundQueueTtl;
+            return this;
+        }
+
+        public Builder<PircBotY> setOutboundQueueDeduplicate(boolean outboundQueueDeduplicate) {
+            this.outboundQueueDeduplicate = outboundQueueDeduplicate;
+            return this;
+        }
+
+        public Builder<PircBotY> setOutboundQueueFile(File outboundQueueFile) {
+            this.outboundQueueFile = outboundQueueFile;
+            return this;
+        }
+
         public Builder<PircBotY> setShutdownHookEnabled(boolean shutdownHookEnabled) {
             this.shutdownHookEnabled = shutdownHookEnabled;
             return this;
@@ -725,6 +964,10 @@ public class Configuration<PircBotY> {
             return serverPassword;
         }
 
+        public List<ServerEntry> getAlternateServers() {
+            return alternateServers;
+        }
+
         public SocketFactory getSocketFactory() {
             return socketFactory;
         }
@@ -745,6 +988,30 @@ public class Configuration<PircBotY> {
             return socketTimeout;
         }
 
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public long getConnectAttemptDelay() {
+            return connectAttemptDelay;
+        }
+
+        public HostResolver getHostResolver() {
+            return hostResolver;
+        }
+
+        public long getKeepAliveInterval() {
+            return keepAliveInterval;
+        }
+
+        public int getKeepAliveMaxMissed() {
+            return keepAliveMaxMissed;
+        }
+
+        public long getRequestTimeout() {
+            return requestTimeout;
+        }
+
         public int getMaxLineLength() {
             return maxLineLength;
         }
@@ -761,6 +1028,42 @@ public class Configuration<PircBotY> {
             return messageDelay;
         }
 
+        public long getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public long getReconnectMaxDelay() {
+            return reconnectMaxDelay;
+        }
+
+        public boolean isPreserveStateOnReconnect() {
+            return preserveStateOnReconnect;
+        }
+
+        public long getModeStackDelay() {
+            return modeStackDelay;
+        }
+
+        public boolean isOutboundQueueEnabled() {
+            return outboundQueueEnabled;
+        }
+
+        public int getOutboundQueueMaxSize() {
+            return outboundQueueMaxSize;
+        }
+
+        public long getOutboundQueueTtl() {
+            return outboundQueueTtl;
+        }
+
+        public boolean isOutboundQueueDeduplicate() {
+            return outboundQueueDeduplicate;
+        }
+
+        public File getOutboundQueueFile() {
+            return outboundQueueFile;
+        }
+
         public boolean isShutdownHookEnabled() {
             return shutdownHookEnabled;
         }
@@ -828,6 +1131,13 @@ public class Configuration<PircBotY> {
             return setServer(hostname, port).setServerPassword(password);
         }
 
+        public Builder<PircBotY> addAlternateServer(String hostname, int port) {
+            Validate.notBlank(hostname, "Must specify server hostname");
+            Validate.isTrue(port > 0 && port <= 65535, "Port must be between 1 and 65535");
+            getAlternateServers().add(new ServerEntry(hostname, port));
+            return this;
+        }
+
         public Builder<PircBotY> setListenerManager(ListenerManager listenerManager) {
             this.listenerManager = listenerManager;
             for (Listener curListener : this.listenerManager.getListeners()) {
@@ -0,0 +1,144 @@
+package net.ae97.pircboty;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class HostResolver {
+
+    private static final HostResolver DEFAULT_RESOLVER = new HostResolver(1000 * 60 * 5, 1000 * 10, 4);
+    private final long ttl;
+    private final long timeout;
+    private final ExecutorService pool;
+    private final Map<String, CachedAddresses> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<InetAddress[]>> pendingLookups = new ConcurrentHashMap<>();
+
+    public HostResolver(long ttl, long timeout, int threads) {
+        Validate.isTrue(ttl >= 0, "TTL must be positive");
+        Validate.isTrue(timeout > 0, "Timeout must be positive");
+        Validate.isTrue(threads > 0, "Threads must be positive");
+        this.ttl = ttl;
+        this.timeout = timeout;
+        ThreadPoolExecutor resolverPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder()
+                .namingPattern("hostResolver-%d")
+                .daemon(true)
+                .build());
+        resolverPool.allowCoreThreadTimeOut(true);
+        this.pool = resolverPool;
+    }
+
+    public static HostResolver getDefault() {
+        return DEFAULT_RESOLVER;
+    }
+
+    public CompletableFuture<InetAddress[]> resolveAsync(String hostname) {
+        Validate.notBlank(hostname, "Hostname cannot be blank");
+        final String key = hostname.toLowerCase(Locale.ENGLISH);
+        CachedAddresses cached = cache.get(key);
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(cached.getAddresses());
+        }
+        return pendingLookups.computeIfAbsent(key, curKey -> CompletableFuture.supplyAsync(() -> lookup(hostname, curKey), pool));
+    }
+
+    public InetAddress[] resolve(String hostname) throws UnknownHostException {
+        try {
+            return resolveAsync(hostname).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            CachedAddresses stale = cache.get(hostname.toLowerCase(Locale.ENGLISH));
+            if (stale != null) {
+                PircBotY.getLogger().log(Level.WARNING, "Timed out resolving " + hostname + ", using stale addresses");
+                return stale.getAddresses();
+            }
+            throw new UnknownHostException("Timed out resolving " + hostname + " after " + timeout + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LookupException) {
+                throw (UnknownHostException) e.getCause().getCause();
+            }
+            UnknownHostException unknownHostException = new UnknownHostException("Could not resolve " + hostname);
+            unknownHostException.initCause(e.getCause());
+            throw unknownHostException;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnknownHostException("Interrupted while resolving " + hostname);
+        }
+    }
+
+    public InetAddress resolveFirst(String hostname) throws UnknownHostException {
+        return resolve(hostname)[0];
+    }
+
+    protected InetAddress[] lookup(String hostname, String key) {
+        try {
+            InetAddress[] addresses = InetAddress.getAllByName(hostname);
+            cache.put(key, new CachedAddresses(addresses, System.currentTimeMillis() + ttl));
+            return addresses;
+        } catch (UnknownHostException e) {
+            CachedAddresses stale = cache.get(key);
+            if (stale != null) {
+                PircBotY.getLogger().log(Level.WARNING, "Could not resolve " + hostname + ", using stale addresses", e);
+                return stale.getAddresses();
+            }
+            throw new LookupException(e);
+        } finally {
+            pendingLookups.remove(key);
+        }
+    }
+
+    public void invalidate(String hostname) {
+        cache.remove(hostname.toLowerCase(Locale.ENGLISH));
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    private static class CachedAddresses {
+
+        private final InetAddress[] addresses;
+        private final long expires;
+
+        public CachedAddresses(InetAddress[] addresses, long expires) {
+            this.addresses = addresses;
+            this.expires = expires;
+        }
+
+        public InetAddress[] getAddresses() {
+            return addresses.clone();
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+    }
+
+    private static class LookupException extends RuntimeException {
+
+        private static final long serialVersionUID = 88131L;
+
+        public LookupException(UnknownHostException cause) {
+            super(cause);
+        }
+    }
+}
@@ -25,10 +25,16 @@ public class IdentServer extends Thread implements AutoCloseable {
     private final String ip;
     private final int port;
     private final Logger logger;
+    private final HostResolver hostResolver;
 
     public IdentServer(Charset encoding, String ip, int port) throws IOException {
+        this(encoding, ip, port, HostResolver.getDefault());
+    }
+
+    public IdentServer(Charset encoding, String ip, int port, HostResolver hostResolver) throws IOException {
         super();
         this.ip = ip;
+        this.hostResolver = hostResolver;
         this.port = port;
         this.encoding = encoding;
         this.serverSocket = new ServerSocket();
@@ -57,7 +63,7 @@ public class IdentServer extends Thread implements AutoCloseable {
             if (ip == null || ip.isEmpty()) {
                 serverSocket.bind(new InetSocketAddress(port));
             } else {
-                serverSocket.bind(new InetSocketAddress(InetAddress.getByName(ip), port));
+                serverSocket.bind(new InetSocketAddress(hostResolver.resolveFirst(ip), port));
             }
         } catch (IOException ex) {
             logger.log(Level.SEVERE, "Could not create server socket", ex);
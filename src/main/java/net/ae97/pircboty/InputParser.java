@@ -5,11 +5,21 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import net.ae97.pircboty.api.events.ActionEvent;
 import net.ae97.pircboty.api.events.ChannelInfoEvent;
@@ -62,6 +72,8 @@ import net.ae97.pircboty.api.events.VersionEvent;
 import net.ae97.pircboty.api.events.VoiceEvent;
 import net.ae97.pircboty.api.events.WhoisEvent;
 import net.ae97.pircboty.cap.CapHandler;
+import net.ae97.pircboty.exception.CAPException;
+import net.ae97.pircboty.exception.RequestFailedException;
 import net.ae97.pircboty.exception.IrcException;
 import net.ae97.pircboty.snapshot.ChannelSnapshot;
 import net.ae97.pircboty.snapshot.UserChannelDaoSnapshot;
@@ -74,37 +86,38 @@ public class InputParser implements Closeable {
     private static final List<String> CONNECT_CODES = new ArrayList<>(Arrays.asList(new String[]{"001", "002", "003", "004", "005",
         "251", "252", "253", "254", "255", "375", "376"}));
     private static final List<ChannelModeHandler> DEFAULT_CHANNEL_MODE_HANDLERS;
+    private static final long AUTO_JOIN_TIMEOUT = 30 * 1000;
 
     static {
         DEFAULT_CHANNEL_MODE_HANDLERS = new ArrayList<>();
         DEFAULT_CHANNEL_MODE_HANDLERS.add(new OpChannelModeHandler('o', UserLevel.OP) {
             @Override
             public void dispatchEvent(PircBotY bot, Channel channel, User sourceUser, User recipientUser, boolean adding) {
-                Utils.dispatchEvent(bot, new OpEvent(bot, channel, sourceUser, recipientUser, adding));
+                Utils.dispatchEvent(bot, OpEvent.class, () -> new OpEvent(bot, channel, sourceUser, recipientUser, adding));
             }
         });
         DEFAULT_CHANNEL_MODE_HANDLERS.add(new OpChannelModeHandler('v', UserLevel.VOICE) {
             @Override
             public void dispatchEvent(PircBotY bot, Channel channel, User sourceUser, User recipientUser, boolean adding) {
-                Utils.dispatchEvent(bot, new VoiceEvent(bot, channel, sourceUser, recipientUser, adding));
+                Utils.dispatchEvent(bot, VoiceEvent.class, () -> new VoiceEvent(bot, channel, sourceUser, recipientUser, adding));
             }
         });
         DEFAULT_CHANNEL_MODE_HANDLERS.add(new OpChannelModeHandler('h', UserLevel.HALFOP) {
             @Override
             public void dispatchEvent(PircBotY bot, Channel channel, User sourceUser, User recipientUser, boolean adding) {
-                Utils.dispatchEvent(bot, new HalfOpEvent(bot, channel, sourceUser, recipientUser, adding));
+                Utils.dispatchEvent(bot, HalfOpEvent.class, () -> new HalfOpEvent(bot, channel, sourceUser, recipientUser, adding));
             }
         });
         DEFAULT_CHANNEL_MODE_HANDLERS.add(new OpChannelModeHandler('a', UserLevel.SUPEROP) {
             @Override
             public void dispatchEvent(PircBotY bot, Channel channel, User sourceUser, User recipientUser, boolean adding) {
-                Utils.dispatchEvent(bot, new SuperOpEvent(bot, channel, sourceUser, recipientUser, adding));
+                Utils.dispatchEvent(bot, SuperOpEvent.class, () -> new SuperOpEvent(bot, channel, sourceUser, recipientUser, adding));
             }
         });
         DEFAULT_CHANNEL_MODE_HANDLERS.add(new OpChannelModeHandler('q', UserLevel.OWNER) {
             @Override
             public void dispatchEvent(PircBotY bot, Channel channel, User sourceUser, User recipientUser, boolean adding) {
-                Utils.dispatchEvent(bot, new OwnerEvent(bot, channel, sourceUser, recipientUser, adding));
+                Utils.dispatchEvent(bot, OwnerEvent.class, () -> new OwnerEvent(bot, channel, sourceUser, recipientUser, adding));
             }
         });
         DEFAULT_CHANNEL_MODE_HANDLERS.add(new ChannelModeHandler('k') {
@@ -114,13 +127,13 @@ public class InputParser implements Closeable {
                     String key = params.next();
                     channel.setChannelKey(key);
                     if (dispatchEvent) {
-                        Utils.dispatchEvent(bot, new SetChannelKeyEvent(bot, channel, sourceUser, key));
+                        Utils.dispatchEvent(bot, SetChannelKeyEvent.class, () -> new SetChannelKeyEvent(bot, channel, sourceUser, key));
                     }
                 } else {
                     String key = params.hasNext() ? params.next() : null;
                     channel.setChannelKey(null);
                     if (dispatchEvent) {
-                        Utils.dispatchEvent(bot, new RemoveChannelKeyEvent(bot, channel, sourceUser, key));
+                        Utils.dispatchEvent(bot, RemoveChannelKeyEvent.class, () -> new RemoveChannelKeyEvent(bot, channel, sourceUser, key));
                     }
                 }
             }
@@ -132,12 +145,12 @@ public class InputParser implements Closeable {
                     int limit = Integer.parseInt(params.next());
                     channel.setChannelLimit(limit);
                     if (dispatchEvent) {
-                        Utils.dispatchEvent(bot, new SetChannelLimitEvent(bot, channel, sourceUser, limit));
+                        Utils.dispatchEvent(bot, SetChannelLimitEvent.class, () -> new SetChannelLimitEvent(bot, channel, sourceUser, limit));
                     }
                 } else {
                     channel.setChannelLimit(-1);
                     if (dispatchEvent) {
-                        Utils.dispatchEvent(bot, new RemoveChannelLimitEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, RemoveChannelLimitEvent.class, () -> new RemoveChannelLimitEvent(bot, channel, sourceUser));
                     }
                 }
             }
@@ -145,11 +158,12 @@ public class InputParser implements Closeable {
         DEFAULT_CHANNEL_MODE_HANDLERS.add(new ChannelModeHandler('b') {
             @Override
             public void handleMode(PircBotY bot, Channel channel, User sourceUser, Iterator<String> params, boolean adding, boolean dispatchEvent) {
+                String mask = params.next();
                 if (dispatchEvent) {
                     if (adding) {
-                        Utils.dispatchEvent(bot, new SetChannelBanEvent(bot, channel, sourceUser, params.next()));
+                        Utils.dispatchEvent(bot, SetChannelBanEvent.class, () -> new SetChannelBanEvent(bot, channel, sourceUser, mask));
                     } else {
-                        Utils.dispatchEvent(bot, new RemoveChannelBanEvent(bot, channel, sourceUser, params.next()));
+                        Utils.dispatchEvent(bot, RemoveChannelBanEvent.class, () -> new RemoveChannelBanEvent(bot, channel, sourceUser, mask));
                     }
                 }
             }
@@ -160,9 +174,9 @@ public class InputParser implements Closeable {
                 channel.setTopicProtection(adding);
                 if (dispatchEvent) {
                     if (adding) {
-                        Utils.dispatchEvent(bot, new SetTopicProtectionEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, SetTopicProtectionEvent.class, () -> new SetTopicProtectionEvent(bot, channel, sourceUser));
                     } else {
-                        Utils.dispatchEvent(bot, new RemoveTopicProtectionEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, RemoveTopicProtectionEvent.class, () -> new RemoveTopicProtectionEvent(bot, channel, sourceUser));
                     }
                 }
             }
@@ -173,9 +187,9 @@ public class InputParser implements Closeable {
                 channel.setNoExternalMessages(adding);
                 if (dispatchEvent) {
                     if (adding) {
-                        Utils.dispatchEvent(bot, new SetNoExternalMessagesEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, SetNoExternalMessagesEvent.class, () -> new SetNoExternalMessagesEvent(bot, channel, sourceUser));
                     } else {
-                        Utils.dispatchEvent(bot, new RemoveNoExternalMessagesEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, RemoveNoExternalMessagesEvent.class, () -> new RemoveNoExternalMessagesEvent(bot, channel, sourceUser));
                     }
                 }
             }
@@ -186,9 +200,9 @@ public class InputParser implements Closeable {
                 channel.setInviteOnly(adding);
                 if (dispatchEvent) {
                     if (adding) {
-                        Utils.dispatchEvent(bot, new SetInviteOnlyEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, SetInviteOnlyEvent.class, () -> new SetInviteOnlyEvent(bot, channel, sourceUser));
                     } else {
-                        Utils.dispatchEvent(bot, new RemoveInviteOnlyEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, RemoveInviteOnlyEvent.class, () -> new RemoveInviteOnlyEvent(bot, channel, sourceUser));
                     }
                 }
             }
@@ -199,9 +213,9 @@ public class InputParser implements Closeable {
                 channel.setModerated(adding);
                 if (dispatchEvent) {
                     if (adding) {
-                        Utils.dispatchEvent(bot, new SetModeratedEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, SetModeratedEvent.class, () -> new SetModeratedEvent(bot, channel, sourceUser));
                     } else {
-                        Utils.dispatchEvent(bot, new RemoveModeratedEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, RemoveModeratedEvent.class, () -> new RemoveModeratedEvent(bot, channel, sourceUser));
                     }
                 }
             }
@@ -212,9 +226,9 @@ public class InputParser implements Closeable {
                 channel.setChannelPrivate(adding);
                 if (dispatchEvent) {
                     if (adding) {
-                        Utils.dispatchEvent(bot, new SetPrivateEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, SetPrivateEvent.class, () -> new SetPrivateEvent(bot, channel, sourceUser));
                     } else {
-                        Utils.dispatchEvent(bot, new RemovePrivateEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, RemovePrivateEvent.class, () -> new RemovePrivateEvent(bot, channel, sourceUser));
                     }
                 }
             }
@@ -225,9 +239,9 @@ public class InputParser implements Closeable {
                 channel.setSecret(adding);
                 if (dispatchEvent) {
                     if (adding) {
-                        Utils.dispatchEvent(bot, new SetSecretEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, SetSecretEvent.class, () -> new SetSecretEvent(bot, channel, sourceUser));
                     } else {
-                        Utils.dispatchEvent(bot, new RemoveSecretEvent(bot, channel, sourceUser));
+                        Utils.dispatchEvent(bot, RemoveSecretEvent.class, () -> new RemoveSecretEvent(bot, channel, sourceUser));
                     }
                 }
             }
@@ -235,7 +249,10 @@ public class InputParser implements Closeable {
     }
     private final Configuration<PircBotY> configuration;
     private final PircBotY bot;
-    private final List<CapHandler> capHandlersFinished = new LinkedList<>();
+    private final Set<CapHandler> capHandlersRemaining = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<String> capLsBuffer = new ArrayList<>();
+    private final Map<String, String> supportedCapabilities = new LinkedHashMap<>();
+    private boolean capLsFinished = false;
     private boolean capEndSent = false;
     private BufferedReader inputReader;
     private final Map<String, WhoisEvent.Builder> whoisBuilder = new ConcurrentHashMap<>();
@@ -243,14 +260,21 @@ public class InputParser implements Closeable {
     private boolean channelListRunning = false;
     private List<ChannelListEntry> channelListBuilder;
     private int nickSuffix = 0;
+    private boolean autoJoinPending = false;
+    private final Queue<String> channelSyncQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> readerTasks = new ConcurrentLinkedQueue<>();
+    private boolean channelSyncRunning = false;
+    private final Set<String> pendingAutoJoins = new HashSet<>();
 
     public InputParser(PircBotY bot) {
         this.bot = bot;
         this.configuration = bot.getConfiguration();
+        this.capHandlersRemaining.addAll(configuration.getCapHandlers());
     }
 
     protected void handleLine(String line) throws IOException, IrcException {
         Validate.notNull(line);
+        runReaderTasks();
         PircBotY.getLogger().log(Level.INFO, "<<< " + line);
         List<String> parsedLine = Utils.tokenizeLine(line);
         String senderInfo = "";
@@ -261,8 +285,11 @@ public class InputParser implements Closeable {
         if (command.equals("PING")) {
             configuration.getListenerManager().dispatchEvent(new ServerPingEvent(bot, parsedLine.get(0)));
             return;
+        } else if (command.equals("PONG") && !parsedLine.isEmpty() && bot.getKeepAlive().handlePong(parsedLine.get(parsedLine.size() - 1))) {
+            return;
         } else if (command.startsWith("ERROR")) {
-            bot.shutdown(true);
+            bot.shutdown();
+            bot.scheduleReconnect();
             return;
         }
         String sourceNick;
@@ -292,13 +319,14 @@ public class InputParser implements Closeable {
                 }
             }
         } else {
-            configuration.getListenerManager().dispatchEvent(new UnknownEvent(bot, line));
+            dispatchUnknown(line);
             if (!bot.isLoggedIn()) {
                 for (CapHandler curCapHandler : configuration.getCapHandlers()) {
                     if (curCapHandler.handleUnknown(bot, line)) {
-                        capHandlersFinished.add(curCapHandler);
+                        capHandlersRemaining.remove(curCapHandler);
                     }
                 }
+                checkCapEnd();
             }
             return;
         }
@@ -313,82 +341,140 @@ public class InputParser implements Closeable {
 
     protected void processConnect(String rawLine, String code, String target, List<String> parsedLine) throws IrcException, IOException {
         if (CONNECT_CODES.contains(code)) {
-            bot.loggedIn(configuration.getName() + (nickSuffix == 0 ? "" : nickSuffix));
+            bot.loggedIn(bot.getRegistrationNick() + (nickSuffix == 0 ? "" : nickSuffix));
             PircBotY.getLogger().log(Level.FINE, "Logged onto server.");
             configuration.getListenerManager().dispatchEvent(new ConnectEvent(bot));
             if (configuration.getNickservPassword() != null) {
                 bot.sendIRC().identify(configuration.getNickservPassword());
             }
-            Map<String, String> autoConnectChannels = bot.reconnectChannels();
-            if (autoConnectChannels == null) {
-                autoConnectChannels = configuration.getAutoJoinChannels();
-            }
-            for (Map.Entry<String, String> channelEntry : autoConnectChannels.entrySet()) {
-                bot.sendIRC().joinChannel(channelEntry.getKey(), channelEntry.getValue());
-            }
+            autoJoinPending = true;
         } else if (code.equals("433")) {
             String usedNick = parsedLine.get(1);
             boolean autoNickChange = configuration.isAutoNickChange();
             String autoNewNick = null;
             if (autoNickChange) {
                 nickSuffix++;
-                bot.sendIRC().changeNick(autoNewNick = configuration.getName() + nickSuffix);
+                bot.sendIRC().changeNick(autoNewNick = bot.getRegistrationNick() + nickSuffix);
             }
             configuration.getListenerManager().dispatchEvent(new NickAlreadyInUseEvent(bot, usedNick, autoNewNick, autoNickChange));
         } else if (code.equals("439")) {
         } else if (configuration.isCapEnabled() && code.equals("451") && target.equals("CAP")) {
+        } else if (code.equals("421") && parsedLine.size() > 1 && parsedLine.get(1).equalsIgnoreCase("CAP")) {
+            PircBotY.getLogger().log(Level.WARNING, "Server does not support CAP, continuing registration without capabilities");
+            capEndSent = true;
         } else if (code.startsWith("5") || code.startsWith("4")) {
             throw new IrcException(IrcException.Reason.CannotLogin, "Received error: " + rawLine);
         } else if (code.equals("CAP")) {
-            String capCommand = parsedLine.get(1);
-            List<String> capParams = new ArrayList<>(Arrays.asList(StringUtils.split(parsedLine.get(2))));
-            switch (capCommand) {
-                case "LS":
-                    for (CapHandler curCapHandler : configuration.getCapHandlers()) {
-                        PircBotY.getLogger().log(Level.FINE, "Executing cap handler {0}", curCapHandler);
-                        if (curCapHandler.handleLS(bot, capParams)) {
-                            PircBotY.getLogger().log(Level.FINE, "Cap handler {0} finished", curCapHandler);
-                            capHandlersFinished.add(curCapHandler);
-                        }
+            processCap(rawLine, parsedLine);
+        } else {
+            for (CapHandler curCapHandler : configuration.getCapHandlers()) {
+                if (curCapHandler.handleUnknown(bot, rawLine)) {
+                    capHandlersRemaining.remove(curCapHandler);
+                }
+            }
+        }
+        checkCapEnd();
+    }
+
+    protected void processCap(String rawLine, List<String> parsedLine) throws CAPException {
+        if (parsedLine.size() < 3) {
+            return;
+        }
+        String capCommand = parsedLine.get(1).toUpperCase(Locale.ENGLISH);
+        boolean moreLines = parsedLine.size() > 3 && parsedLine.get(2).equals("*");
+        List<String> capParams = new ArrayList<>(Arrays.asList(StringUtils.split(parsedLine.get(parsedLine.size() - 1))));
+        switch (capCommand) {
+            case "LS":
+                capLsBuffer.addAll(capParams);
+                if (moreLines) {
+                    return;
+                }
+                List<String> capabilities = parseCapabilities(capLsBuffer);
+                capLsBuffer.clear();
+                capLsFinished = true;
+                offerCapabilities(capabilities);
+                break;
+            case "NEW":
+                offerCapabilities(parseCapabilities(capParams));
+                break;
+            case "DEL":
+                for (String curCap : capParams) {
+                    supportedCapabilities.remove(curCap);
+                    bot.getEnabledCapabilities().remove(curCap);
+                }
+                break;
+            case "ACK":
+                for (String curCap : capParams) {
+                    if (curCap.startsWith("-")) {
+                        bot.getEnabledCapabilities().remove(curCap.substring(1));
+                    } else if (!bot.getEnabledCapabilities().contains(curCap)) {
+                        bot.getEnabledCapabilities().add(curCap);
                     }
-                    break;
-                case "ACK":
-                    bot.getEnabledCapabilities().addAll(capParams);
-                    for (CapHandler curCapHandler : configuration.getCapHandlers()) {
-                        if (curCapHandler.handleACK(bot, capParams)) {
-                            PircBotY.getLogger().log(Level.FINER, "Removing cap handler {0}", curCapHandler);
-                            capHandlersFinished.add(curCapHandler);
-                        }
+                }
+                for (CapHandler curCapHandler : configuration.getCapHandlers()) {
+                    if (curCapHandler.handleACK(bot, capParams)) {
+                        PircBotY.getLogger().log(Level.FINER, "Removing cap handler {0}", curCapHandler);
+                        capHandlersRemaining.remove(curCapHandler);
                     }
-                    break;
-                case "NAK":
-                    for (CapHandler curCapHandler : configuration.getCapHandlers()) {
-                        if (curCapHandler.handleNAK(bot, capParams)) {
-                            capHandlersFinished.add(curCapHandler);
-                        }
+                }
+                break;
+            case "NAK":
+                for (CapHandler curCapHandler : configuration.getCapHandlers()) {
+                    if (curCapHandler.handleNAK(bot, capParams)) {
+                        capHandlersRemaining.remove(curCapHandler);
                     }
-                    break;
-                default:
-                    for (CapHandler curCapHandler : configuration.getCapHandlers()) {
-                        if (curCapHandler.handleUnknown(bot, rawLine)) {
-                            capHandlersFinished.add(curCapHandler);
-                        }
+                }
+                break;
+            default:
+                for (CapHandler curCapHandler : configuration.getCapHandlers()) {
+                    if (curCapHandler.handleUnknown(bot, rawLine)) {
+                        capHandlersRemaining.remove(curCapHandler);
                     }
-                    break;
-            }
-        } else {
+                }
+                break;
+        }
+    }
+
+    protected List<String> parseCapabilities(List<String> rawCapabilities) {
+        List<String> capabilities = new ArrayList<>(rawCapabilities.size());
+        for (String curCap : rawCapabilities) {
+            int equals = curCap.indexOf('=');
+            String name = (equals == -1) ? curCap : curCap.substring(0, equals);
+            supportedCapabilities.put(name, (equals == -1) ? "" : curCap.substring(equals + 1));
+            capabilities.add(name);
+        }
+        return capabilities;
+    }
+
+    protected void offerCapabilities(List<String> capabilities) throws CAPException {
+        bot.sendCAP().beginBatch();
+        try {
             for (CapHandler curCapHandler : configuration.getCapHandlers()) {
-                if (curCapHandler.handleUnknown(bot, rawLine)) {
-                    capHandlersFinished.add(curCapHandler);
+                if (!capHandlersRemaining.contains(curCapHandler)) {
+                    continue;
+                }
+                PircBotY.getLogger().log(Level.FINE, "Executing cap handler {0}", curCapHandler);
+                if (curCapHandler.handleLS(bot, capabilities)) {
+                    PircBotY.getLogger().log(Level.FINE, "Cap handler {0} finished", curCapHandler);
+                    capHandlersRemaining.remove(curCapHandler);
                 }
             }
+        } finally {
+            bot.sendCAP().flushBatch();
         }
-        if (configuration.isCapEnabled() && !capEndSent && capHandlersFinished.containsAll(configuration.getCapHandlers())) {
+    }
+
+    protected void checkCapEnd() {
+        if (configuration.isCapEnabled() && !capEndSent && capLsFinished && capHandlersRemaining.isEmpty()) {
             capEndSent = true;
             bot.sendCAP().end();
         }
     }
 
+    public Map<String, String> getSupportedCapabilities() {
+        return Collections.unmodifiableMap(supportedCapabilities);
+    }
+
     protected void processCommand(String target, String sourceNick, String sourceLogin, String sourceHostname, String command, String line, List<String> parsedLine) throws IOException {
         User source = bot.getUserChannelDao().getUser(sourceNick);
         Channel channel = (target.length() != 0 && configuration.getChannelPrefixes().indexOf(target.charAt(0)) >= 0) ? bot.getUserChannelDao().getChannel(target) : null;
@@ -408,10 +494,10 @@ public class InputParser implements Closeable {
             } else if (request.startsWith("DCC ")) {
                 boolean success = bot.getDccHandler().processDcc(source, request);
                 if (!success) {
-                    configuration.getListenerManager().dispatchEvent(new UnknownEvent(bot, line));
+                    dispatchUnknown(line);
                 }
             } else {
-                configuration.getListenerManager().dispatchEvent(new UnknownEvent(bot, line));
+                dispatchUnknown(line);
             }
         } else if (command.equals("PRIVMSG") && channel != null) {
             configuration.getListenerManager().dispatchEvent(new MessageEvent(bot, channel, source, message));
@@ -419,14 +505,21 @@ public class InputParser implements Closeable {
             bot.getUserChannelDao().addUserToPrivate(source);
             configuration.getListenerManager().dispatchEvent(new PrivateMessageEvent(bot, source, message));
         } else if (command.equals("JOIN")) {
+            boolean rejoin = false;
             if (sourceNick.equalsIgnoreCase(bot.getNick())) {
-                bot.sendRaw().rawLine("WHO " + target);
-                bot.sendRaw().rawLine("MODE " + target);
+                rejoin = bot.getUserChannelDao().isStale(channel);
+                bot.getUserChannelDao().startRefresh(channel);
+                scheduleChannelSync(target);
+                autoJoinFinished(target);
+            } else if (bot.getUserChannelDao().getStaleUsers(channel) != null) {
+                bot.getUserChannelDao().getStaleUsers(channel).add(source);
             }
             source.setLogin(sourceLogin);
             source.setHostmask(sourceHostname);
             bot.getUserChannelDao().addUserToChannel(source, channel);
-            configuration.getListenerManager().dispatchEvent(new JoinEvent(bot, channel, source));
+            if (!rejoin) {
+                configuration.getListenerManager().dispatchEvent(new JoinEvent(bot, channel, source));
+            }
         } else if (command.equals("PART")) {
             UserChannelDao<PircBotY, UserSnapshot, ChannelSnapshot> daoSnapshot = bot.getUserChannelDao().createSnapshot();
             ChannelSnapshot channelSnapshot = daoSnapshot.getChannel(channel.getName());
@@ -482,18 +575,27 @@ public class InputParser implements Closeable {
             }
         } else if (command.equals("AWAY")) {
             source.setAwayMessage(parsedLine.get(0));
+        } else if (command.equals("CAP")) {
+            if (bot.isLoggedIn()) {
+                try {
+                    processCap(line, parsedLine);
+                } catch (CAPException e) {
+                    PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when processing capability change", e);
+                }
+            }
         } else if (command.equals("ACCOUNT")) {
             PircBotY.getLogger().info(source.getNick() + " " + (target.equals("*") ? "has deauthed" : ("has authenticated as " + target)));
             String old = source.getLogin();
             source.setLogin(target.equals("*") ? null : target);
             configuration.getListenerManager().dispatchEvent(new UserAuthEvent(bot, source, old));
         } else {
-            configuration.getListenerManager().dispatchEvent(new UnknownEvent(bot, line));
+            dispatchUnknown(line);
         }
     }
 
     protected void processServerResponse(int code, String rawResponse, List<String> parsedResponseOrig) {
-        List<String> parsedResponse = new ArrayList<>(parsedResponseOrig);
+        boolean dispatchResponse = configuration.getListenerManager().hasSubscribers(ServerResponseEvent.class);
+        List<String> parsedResponse = dispatchResponse ? new ArrayList<>(parsedResponseOrig) : parsedResponseOrig;
         ReplyConstants reply = ReplyConstants.getReplyConstant(code);
         if (reply != null) {
             switch (reply) {
@@ -510,7 +612,9 @@ public class InputParser implements Closeable {
                     break;
                 }
                 case RPL_LISTEND: {
-                    configuration.getListenerManager().dispatchEvent(new ChannelInfoEvent(bot, channelListBuilder));
+                    ChannelInfoEvent channelInfoEvent = new ChannelInfoEvent(bot, channelListBuilder);
+                    bot.getRequestTracker().complete(reply, "", channelInfoEvent);
+                    configuration.getListenerManager().dispatchEvent(channelInfoEvent);
                     channelListBuilder = null;
                     channelListRunning = false;
                     break;
@@ -548,11 +652,15 @@ public class InputParser implements Closeable {
                         curUser.setRealName(rawEnding.substring(rawEndingSpaceIndex + 1));
                     }
                     bot.getUserChannelDao().addUserToChannel(curUser, channel);
+                    bot.getUserChannelDao().markRefreshed(curUser, channel);
                     break;
                 }
                 case RPL_ENDOFWHO: {
                     Channel channel = bot.getUserChannelDao().getChannel(parsedResponse.get(1));
-                    configuration.getListenerManager().dispatchEvent(new UserListEvent(bot, channel, bot.getUserChannelDao().getUsers(channel)));
+                    reconcileChannel(channel);
+                    UserListEvent userListEvent = new UserListEvent(bot, channel, bot.getUserChannelDao().getUsers(channel));
+                    bot.getRequestTracker().complete(reply, channel.getName(), userListEvent);
+                    configuration.getListenerManager().dispatchEvent(userListEvent);
                     break;
                 }
                 case RPL_CHANNELMODEIS: {
@@ -560,7 +668,10 @@ public class InputParser implements Closeable {
                     List<String> modeParsed = parsedResponse.subList(2, parsedResponse.size());
                     String mode = StringUtils.join(modeParsed, ' ');
                     channel.setMode(mode, modeParsed);
-                    configuration.getListenerManager().dispatchEvent(new ModeEvent(bot, channel, null, mode, modeParsed));
+                    bot.getRequestTracker().complete(reply, channel.getName(), mode);
+                    if (configuration.getListenerManager().hasSubscribers(ModeEvent.class)) {
+                        configuration.getListenerManager().dispatchEvent(new ModeEvent(bot, channel, null, mode, modeParsed));
+                    }
                     break;
                 }
                 case RPL_MOTDSTART: {
@@ -576,6 +687,26 @@ public class InputParser implements Closeable {
                     serverInfo.setMotd(motdBuilder.toString().trim());
                     motdBuilder = null;
                     configuration.getListenerManager().dispatchEvent(new MotdEvent(bot, serverInfo.getMotd()));
+                    autoJoin();
+                    break;
+                }
+                case ERR_NOMOTD: {
+                    autoJoin();
+                    break;
+                }
+                case ERR_NOSUCHCHANNEL:
+                case ERR_TOOMANYCHANNELS:
+                case ERR_CHANNELISFULL:
+                case ERR_INVITEONLYCHAN:
+                case ERR_BANNEDFROMCHAN:
+                case ERR_BADCHANNELKEY: {
+                    if (reply == ReplyConstants.ERR_NOSUCHCHANNEL) {
+                        RequestFailedException failure = new RequestFailedException(parsedResponse.get(1), code, parsedResponse.get(parsedResponse.size() - 1));
+                        bot.getRequestTracker().fail(ReplyConstants.RPL_ENDOFWHO, parsedResponse.get(1), failure);
+                        bot.getRequestTracker().fail(ReplyConstants.RPL_CHANNELMODEIS, parsedResponse.get(1), failure);
+                    }
+                    dropStaleChannel(parsedResponse.get(1));
+                    autoJoinFinished(parsedResponse.get(1));
                     break;
                 }
                 case RPL_WHOISUSER: {
@@ -612,8 +743,17 @@ public class InputParser implements Closeable {
                 }
                 case RPL_ENDOFWHOIS: {
                     String whoisNick = parsedResponse.get(1);
-                    configuration.getListenerManager().dispatchEvent(whoisBuilder.get(whoisNick).generateEvent(bot));
-                    whoisBuilder.remove(whoisNick);
+                    WhoisEvent.Builder builder = whoisBuilder.remove(whoisNick);
+                    if (builder != null) {
+                        WhoisEvent whoisEvent = builder.generateEvent(bot);
+                        bot.getRequestTracker().complete(reply, whoisNick, whoisEvent);
+                        configuration.getListenerManager().dispatchEvent(whoisEvent);
+                    }
+                    break;
+                }
+                case ERR_NOSUCHNICK: {
+                    bot.getRequestTracker().fail(ReplyConstants.RPL_ENDOFWHOIS, parsedResponse.get(1),
+                            new RequestFailedException(parsedResponse.get(1), code, parsedResponse.get(parsedResponse.size() - 1)));
                     break;
                 }
             }
@@ -644,7 +784,150 @@ public class InputParser implements Closeable {
             }
         }
         bot.getServerInfo().parse(code, parsedResponseOrig);
-        configuration.getListenerManager().dispatchEvent(new ServerResponseEvent(bot, code, rawResponse, parsedResponse));
+        if (dispatchResponse) {
+            configuration.getListenerManager().dispatchEvent(new ServerResponseEvent(bot, code, rawResponse, parsedResponse));
+        }
+    }
+
+    protected void autoJoin() {
+        if (!autoJoinPending) {
+            return;
+        }
+        autoJoinPending = false;
+        Map<String, String> autoConnectChannels = bot.reconnectChannels();
+        if (autoConnectChannels == null) {
+            autoConnectChannels = configuration.getAutoJoinChannels();
+        }
+        if (autoConnectChannels.isEmpty()) {
+            bot.getOutboundQueue().replay();
+            return;
+        }
+        synchronized (pendingAutoJoins) {
+            for (String curChannel : autoConnectChannels.keySet()) {
+                pendingAutoJoins.add(curChannel.toLowerCase(configuration.getLocale()));
+            }
+        }
+        bot.getScheduler().schedule(() -> {
+            if (bot.getInputParser() != this) {
+                return;
+            }
+            synchronized (pendingAutoJoins) {
+                pendingAutoJoins.clear();
+            }
+            readerTasks.add(() -> {
+                for (Channel curChannel : bot.getUserChannelDao().getStaleChannels()) {
+                    dropStaleChannel(curChannel.getName());
+                }
+            });
+            bot.getOutboundQueue().replay();
+        }, AUTO_JOIN_TIMEOUT, TimeUnit.MILLISECONDS);
+        bot.sendIRC().joinChannels(autoConnectChannels);
+    }
+
+    protected void reconcileChannel(Channel channel) {
+        UserChannelDao<PircBotY, User, Channel> dao = bot.getUserChannelDao();
+        Set<User> staleUsers = dao.getStaleUsers(channel);
+        Set<User> refreshedUsers = dao.getRefreshedUsers(channel);
+        if (staleUsers == null || refreshedUsers == null) {
+            return;
+        }
+        dao.finishRefresh(channel);
+        List<User> departedUsers = new ArrayList<>();
+        for (User curUser : dao.getUsers(channel)) {
+            if (!refreshedUsers.contains(curUser) && !curUser.getNick().equalsIgnoreCase(bot.getNick())) {
+                departedUsers.add(curUser);
+            }
+        }
+        if (!departedUsers.isEmpty()) {
+            UserChannelDaoSnapshot<PircBotY> daoSnapshot = dao.createSnapshot();
+            ChannelSnapshot channelSnapshot = daoSnapshot.getChannel(channel.getName());
+            for (User curUser : departedUsers) {
+                UserSnapshot userSnapshot = daoSnapshot.getUser(curUser.getNick());
+                dao.removeUserFromChannel(curUser, channel);
+                configuration.getListenerManager().dispatchEvent(new PartEvent(bot, daoSnapshot, channelSnapshot, userSnapshot, ""));
+            }
+        }
+        for (User curUser : refreshedUsers) {
+            if (!staleUsers.contains(curUser)) {
+                configuration.getListenerManager().dispatchEvent(new JoinEvent(bot, channel, curUser));
+            }
+        }
+    }
+
+    protected void runReaderTasks() {
+        Runnable task;
+        while ((task = readerTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    protected void dropStaleChannel(String channelName) {
+        UserChannelDao<PircBotY, User, Channel> dao = bot.getUserChannelDao();
+        if (!dao.channelExists(channelName)) {
+            return;
+        }
+        Channel channel = dao.getChannel(channelName);
+        if (!dao.isStale(channel) || dao.getRefreshedUsers(channel) != null) {
+            return;
+        }
+        UserChannelDaoSnapshot<PircBotY> daoSnapshot = dao.createSnapshot();
+        ChannelSnapshot channelSnapshot = daoSnapshot.getChannel(channel.getName());
+        dao.removeChannel(channel);
+        if (daoSnapshot.userExists(bot.getNick())) {
+            configuration.getListenerManager().dispatchEvent(new PartEvent(bot, daoSnapshot, channelSnapshot, daoSnapshot.getUser(bot.getNick()), ""));
+        }
+    }
+
+    protected void autoJoinFinished(String channel) {
+        synchronized (pendingAutoJoins) {
+            if (!pendingAutoJoins.remove(channel.toLowerCase(configuration.getLocale())) || !pendingAutoJoins.isEmpty()) {
+                return;
+            }
+        }
+        bot.getOutboundQueue().replay();
+    }
+
+    protected void scheduleChannelSync(String channel) {
+        channelSyncQueue.add(channel);
+        synchronized (channelSyncQueue) {
+            if (channelSyncRunning) {
+                return;
+            }
+            channelSyncRunning = true;
+        }
+        executeChannelSync();
+    }
+
+    private void executeChannelSync() {
+        try {
+            bot.getSendExecutor().execute(this::syncNextChannel);
+        } catch (RejectedExecutionException e) {
+            PircBotY.getLogger().log(Level.FINE, "Channel synchronization was rejected", e);
+            synchronized (channelSyncQueue) {
+                channelSyncQueue.clear();
+                channelSyncRunning = false;
+            }
+        }
+    }
+
+    private void syncNextChannel() {
+        String channel = channelSyncQueue.poll();
+        if (channel != null && bot.isConnected()) {
+            try {
+                bot.sendRaw().rawLine("WHO " + channel);
+                bot.sendRaw().rawLine("MODE " + channel);
+            } catch (RuntimeException e) {
+                PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when synchronizing channel " + channel, e);
+            }
+        }
+        synchronized (channelSyncQueue) {
+            if (channelSyncQueue.isEmpty() || !bot.isConnected()) {
+                channelSyncQueue.clear();
+                channelSyncRunning = false;
+                return;
+            }
+        }
+        executeChannelSync();
     }
 
     protected void processMode(User user, String target, String mode) {
@@ -671,12 +954,20 @@ public class InputParser implements Closeable {
                         }   break;
                 }
             }
-            configuration.getListenerManager().dispatchEvent(new ModeEvent(bot, channel, user, mode, modeParsed));
-        } else {
+            if (configuration.getListenerManager().hasSubscribers(ModeEvent.class)) {
+                configuration.getListenerManager().dispatchEvent(new ModeEvent(bot, channel, user, mode, modeParsed));
+            }
+        } else if (configuration.getListenerManager().hasSubscribers(UserModeEvent.class)) {
             configuration.getListenerManager().dispatchEvent(new UserModeEvent(bot, user, bot.getUserChannelDao().getUser(target), mode));
         }
     }
 
+    protected void dispatchUnknown(String line) {
+        if (configuration.getListenerManager().hasSubscribers(UnknownEvent.class)) {
+            configuration.getListenerManager().dispatchEvent(new UnknownEvent(bot, line));
+        }
+    }
+
     protected void processUserStatus(Channel chan, User user, String prefix) {
         if (prefix.contains("@")) {
             bot.getUserChannelDao().addUserToLevel(UserLevel.OP, user, chan);
@@ -699,8 +990,16 @@ public class InputParser implements Closeable {
 
     @Override
     public void close() {
+        autoJoinPending = false;
+        channelSyncQueue.clear();
+        readerTasks.clear();
+        synchronized (pendingAutoJoins) {
+            pendingAutoJoins.clear();
+        }
         capEndSent = false;
-        capHandlersFinished.clear();
+        capLsFinished = false;
+        capLsBuffer.clear();
+        capHandlersRemaining.clear();
         whoisBuilder.clear();
         motdBuilder = null;
         channelListRunning = false;
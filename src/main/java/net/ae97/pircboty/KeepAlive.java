@@ -0,0 +1,97 @@
+package net.ae97.pircboty;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import net.ae97.pircboty.api.events.LagEvent;
+
+public class KeepAlive {
+
+    private static final String TOKEN_PREFIX = "LAG";
+    private final PircBotY bot;
+    private final Configuration<PircBotY> configuration;
+    private ScheduledFuture<?> pingFuture;
+    private String pendingToken;
+    private long pendingSince = -1;
+    private int missedPongs = 0;
+    private long lag = -1;
+
+    public KeepAlive(PircBotY bot) {
+        this.bot = bot;
+        this.configuration = bot.getConfiguration();
+    }
+
+    public synchronized void start() {
+        if (configuration.getKeepAliveInterval() <= 0 || pingFuture != null) {
+            return;
+        }
+        long interval = configuration.getKeepAliveInterval();
+        pingFuture = bot.getScheduler().scheduleWithFixedDelay(this::sendPing, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (pingFuture != null) {
+            pingFuture.cancel(false);
+            pingFuture = null;
+        }
+        pendingToken = null;
+        pendingSince = -1;
+        missedPongs = 0;
+    }
+
+    protected void sendPing() {
+        String token;
+        synchronized (this) {
+            if (pingFuture == null || !bot.isConnected()) {
+                return;
+            }
+            if (pendingToken != null) {
+                missedPongs++;
+                PircBotY.getLogger().log(Level.WARNING, "No PONG received for " + (System.currentTimeMillis() - pendingSince) + "ms (" + missedPongs + " missed)");
+                if (missedPongs >= configuration.getKeepAliveMaxMissed()) {
+                    long silence = System.currentTimeMillis() - pendingSince;
+                    stop();
+                    bot.closeDeadConnection(new IOException("Ping timeout: no reply from server in " + silence + "ms"));
+                }
+                return;
+            }
+            pendingSince = System.currentTimeMillis();
+            pendingToken = TOKEN_PREFIX + System.nanoTime();
+            token = pendingToken;
+        }
+        bot.sendRaw().rawLineNow("PING :" + token);
+    }
+
+    public boolean handlePong(String token) {
+        if (!token.startsWith(TOKEN_PREFIX)) {
+            return false;
+        }
+        long currentLag;
+        synchronized (this) {
+            if (pendingToken == null || !pendingToken.equals(token)) {
+                PircBotY.getLogger().log(Level.FINE, "Ignoring late PONG " + token);
+                return true;
+            }
+            long sentAt = Utils.tryParseLong(token.substring(TOKEN_PREFIX.length()), -1);
+            if (sentAt == -1) {
+                return false;
+            }
+            currentLag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+            lag = currentLag;
+            pendingToken = null;
+            pendingSince = -1;
+            missedPongs = 0;
+        }
+        configuration.getListenerManager().dispatchEvent(new LagEvent(bot, currentLag));
+        return true;
+    }
+
+    public synchronized long getLag() {
+        return lag;
+    }
+
+    public synchronized int getMissedPongs() {
+        return missedPongs;
+    }
+}
@@ -0,0 +1,331 @@
+package net.ae97.pircboty;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import net.ae97.pircboty.exception.IrcException;
+import net.ae97.pircboty.managers.ListenerManager;
+import net.ae97.pircboty.managers.ThreadedListenerManager;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class MultiBotManager {
+
+    private static final AtomicInteger MANAGER_COUNT = new AtomicInteger();
+    private static final int MAX_CONCURRENT_STARTS = 4;
+    private static final long STOP_TIMEOUT = 1000 * 30;
+    private final int managerNumber;
+    private final int listenerThreadsPerBot;
+    private final ThreadPoolExecutor listenerPool;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService startPool;
+    private final List<Configuration<PircBotY>> queuedConfigurations = new LinkedList<>();
+    private final List<PircBotY> bots = new ArrayList<>();
+    private IdentServer identServer;
+    private State state = State.NEW;
+    private Thread shutdownHook;
+
+    public MultiBotManager() {
+        this(Runtime.getRuntime().availableProcessors() * 4, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiBotManager(int listenerThreads, int listenerThreadsPerBot) {
+        Validate.isTrue(listenerThreads > 0, "Listener threads must be positive");
+        Validate.isTrue(listenerThreadsPerBot > 0, "Listener threads per bot must be positive");
+        this.managerNumber = MANAGER_COUNT.getAndIncrement();
+        this.listenerThreadsPerBot = listenerThreadsPerBot;
+        this.listenerPool = new ThreadPoolExecutor(listenerThreads, listenerThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new BasicThreadFactory.Builder()
+                .namingPattern("multiBotManager" + managerNumber + "-listener%d")
+                .daemon(true)
+                .build());
+        this.listenerPool.allowCoreThreadTimeOut(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("multiBotManager" + managerNumber + "-scheduler")
+                .daemon(true)
+                .build());
+        this.startPool = Executors.newFixedThreadPool(MAX_CONCURRENT_STARTS, new BasicThreadFactory.Builder()
+                .namingPattern("multiBotManager" + managerNumber + "-start%d")
+                .daemon(true)
+                .build());
+    }
+
+    public ListenerManager createListenerManager() {
+        return new ThreadedListenerManager(new BotExecutor(listenerPool, listenerThreadsPerBot));
+    }
+
+    public synchronized void addBot(Configuration<PircBotY> configuration) {
+        Validate.notNull(configuration, "Configuration cannot be null");
+        Validate.isTrue(state != State.STOPPING && state != State.STOPPED, "Cannot add bot to a stopped MultiBotManager");
+        if (configuration.isShutdownHookEnabled()) {
+            configuration = new Configuration.Builder<>(configuration)
+                    .setShutdownHookEnabled(false)
+                    .buildConfiguration();
+        }
+        if (state == State.NEW) {
+            queuedConfigurations.add(configuration);
+        } else {
+            startBot(createBot(configuration));
+        }
+    }
+
+    public synchronized void start() {
+        Validate.isTrue(state == State.NEW, "MultiBotManager has already been started");
+        state = State.RUNNING;
+        Runtime.getRuntime().addShutdownHook(shutdownHook = new Thread(this::stop, "multiBotManager" + managerNumber + "-shutdownhook"));
+        for (Configuration<PircBotY> curConfiguration : queuedConfigurations) {
+            startBot(createBot(curConfiguration));
+        }
+        queuedConfigurations.clear();
+    }
+
+    protected PircBotY createBot(Configuration<PircBotY> configuration) {
+        if (configuration.isIdentServerEnabled() && identServer == null) {
+            try {
+                identServer = new IdentServer(configuration.getEncoding(), configuration.getIdentServerIP(), configuration.getIdentServerPort(), configuration.getHostResolver());
+                identServer.start();
+            } catch (IOException e) {
+                PircBotY.getLogger().log(Level.SEVERE, "Could not create shared ident server", e);
+            }
+        }
+        PircBotY bot = new PircBotY(configuration, scheduler, startPool, identServer);
+        bots.add(bot);
+        return bot;
+    }
+
+    protected void startBot(final PircBotY bot) {
+        startPool.execute(() -> {
+            try {
+                bot.startBot();
+            } catch (IOException | IrcException e) {
+                PircBotY.getLogger().log(Level.SEVERE, "Could not start bot " + bot.getBotId(), e);
+                bot.scheduleReconnect();
+            }
+        });
+    }
+
+    public void stop() {
+        List<PircBotY> runningBots;
+        synchronized (this) {
+            if (state == State.STOPPING || state == State.STOPPED) {
+                return;
+            }
+            state = State.STOPPING;
+            runningBots = new ArrayList<>(bots);
+        }
+        for (PircBotY curBot : runningBots) {
+            curBot.stopBotReconnect();
+            if (curBot.isConnected()) {
+                try {
+                    curBot.sendIRC().quitServer();
+                } catch (RuntimeException e) {
+                    PircBotY.getLogger().log(Level.SEVERE, "Could not quit bot " + curBot.getBotId(), e);
+                }
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STOP_TIMEOUT);
+        try {
+            for (PircBotY curBot : runningBots) {
+                if (!curBot.awaitDisconnect(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    PircBotY.getLogger().log(Level.WARNING, "Bot " + curBot.getBotId() + " did not disconnect within " + STOP_TIMEOUT + "ms");
+                }
+            }
+            startPool.shutdownNow();
+            scheduler.shutdown();
+            listenerPool.shutdown();
+            if (!scheduler.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)
+                    || !listenerPool.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                PircBotY.getLogger().log(Level.WARNING, "Shared pools of MultiBotManager " + managerNumber + " did not terminate within " + STOP_TIMEOUT + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            startPool.shutdownNow();
+            scheduler.shutdown();
+            listenerPool.shutdown();
+        }
+        synchronized (this) {
+            if (identServer != null) {
+                try {
+                    identServer.close();
+                } catch (IOException e) {
+                    PircBotY.getLogger().log(Level.SEVERE, "Could not close shared ident server", e);
+                }
+            }
+            if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    PircBotY.getLogger().log(Level.FINE, "JVM is already shutting down", e);
+                }
+            }
+            state = State.STOPPED;
+        }
+    }
+
+    public synchronized List<PircBotY> getBots() {
+        return Collections.unmodifiableList(new ArrayList<>(bots));
+    }
+
+    public synchronized Map<PircBotY, PircBotY.State> getBotStates() {
+        Map<PircBotY, PircBotY.State> states = new LinkedHashMap<>();
+        for (PircBotY curBot : bots) {
+            states.put(curBot, curBot.getState());
+        }
+        return states;
+    }
+
+    public synchronized int getConnectedCount() {
+        int connected = 0;
+        for (PircBotY curBot : bots) {
+            if (curBot.isConnected()) {
+                connected++;
+            }
+        }
+        return connected;
+    }
+
+    public int getListenerQueueSize() {
+        return listenerPool.getQueue().size();
+    }
+
+    public int getActiveListenerThreads() {
+        return listenerPool.getActiveCount();
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public synchronized IdentServer getIdentServer() {
+        return identServer;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public enum State {
+
+        NEW,
+        RUNNING,
+        STOPPING,
+        STOPPED
+    }
+
+    protected static class BotExecutor extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final int maxRunning;
+        private final LinkedList<Runnable> pending = new LinkedList<>();
+        private int running = 0;
+        private boolean shutdown = false;
+
+        public BotExecutor(ExecutorService delegate, int maxRunning) {
+            this.delegate = delegate;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            synchronized (pending) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("Executor has been shutdown");
+                }
+                if (running >= maxRunning) {
+                    pending.add(command);
+                    return;
+                }
+                running++;
+            }
+            submitToDelegate(command);
+        }
+
+        private void submitToDelegate(Runnable command) {
+            try {
+                delegate.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        runNext();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                runNext();
+                throw e;
+            }
+        }
+
+        private void runNext() {
+            Runnable next;
+            synchronized (pending) {
+                next = pending.poll();
+                if (next == null) {
+                    running--;
+                    pending.notifyAll();
+                    return;
+                }
+            }
+            submitToDelegate(next);
+        }
+
+        @Override
+        public void shutdown() {
+            synchronized (pending) {
+                shutdown = true;
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            synchronized (pending) {
+                shutdown = true;
+                List<Runnable> remaining = new ArrayList<>(pending);
+                pending.clear();
+                return remaining;
+            }
+        }
+
+        @Override
+        public boolean isShutdown() {
+            synchronized (pending) {
+                return shutdown;
+            }
+        }
+
+        @Override
+        public boolean isTerminated() {
+            synchronized (pending) {
+                return shutdown && running == 0;
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized (pending) {
+                while (!(shutdown && running == 0)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(pending, remaining);
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -10,15 +10,29 @@ import java.lang.ref.WeakReference;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.net.ssl.SSLSocket;
 import net.ae97.pircboty.api.events.DisconnectEvent;
+import net.ae97.pircboty.api.events.ReconnectEvent;
 import net.ae97.pircboty.api.events.SocketConnectEvent;
 import net.ae97.pircboty.dcc.DccHandler;
 import net.ae97.pircboty.exception.IrcException;
+import net.ae97.pircboty.output.OutboundQueue;
 import net.ae97.pircboty.output.OutputCAP;
 import net.ae97.pircboty.output.OutputDCC;
 import net.ae97.pircboty.output.OutputIRC;
@@ -27,6 +41,7 @@ import net.ae97.pircboty.snapshot.ChannelSnapshot;
 import net.ae97.pircboty.snapshot.UserSnapshot;
 import net.ae97.pokebot.logger.PrefixLogger;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 public class PircBotY implements Comparable<PircBotY> {
 
@@ -35,6 +50,12 @@ public class PircBotY implements Comparable<PircBotY> {
     private final int botId;
     private final Configuration<PircBotY> configuration;
     private final List<String> enabledCapabilities = new LinkedList<>();
+    private final boolean ownsScheduler;
+    private final boolean ownsConnectExecutor;
+    private volatile ScheduledExecutorService scheduler;
+    private volatile ExecutorService connectExecutor;
+    private volatile ExecutorService sendExecutor;
+    private final OutboundQueue outboundQueue;
     private InputParser inputParser;
     private UserChannelDao<PircBotY, User, Channel> userChannelDao;
     private DccHandler dccHandler;
@@ -47,6 +68,7 @@ public class PircBotY implements Comparable<PircBotY> {
     private OutputCAP outputCAP;
     private OutputDCC outputDCC;
     private String nick = "";
+    private volatile String registrationNick;
     private boolean loggedIn = false;
     private Thread shutdownHook;
     private boolean reconnectStopped = false;
@@ -56,23 +78,185 @@ public class PircBotY implements Comparable<PircBotY> {
     private InputProcessor inputProcessor;
     private static final Logger logger = new PrefixLogger("PircBotY");
     private IdentServer identServer;
+    private KeepAlive keepAlive;
+    private RequestTracker requestTracker;
+    private int serverIndex = 0;
+    private int reconnectAttempt = 0;
+    private ScheduledFuture<?> reconnectFuture;
+    private long disconnectedSince = -1;
+    private long totalDisconnectedTime = 0;
+    private long handshakeTime = -1;
+    private boolean sessionResumed = false;
 
     public static Logger getLogger() {
         return logger;
     }
 
     public PircBotY(Configuration<PircBotY> configuration) {
+        this(configuration, null, null);
+    }
+
+    public PircBotY(Configuration<PircBotY> configuration, ScheduledExecutorService scheduler, IdentServer identServer) {
+        this(configuration, scheduler, null, identServer);
+    }
+
+    public PircBotY(Configuration<PircBotY> configuration, ScheduledExecutorService scheduler, ExecutorService connectExecutor, IdentServer identServer) {
         botId = BOT_COUNT.getAndIncrement();
         this.configuration = configuration;
+        this.ownsScheduler = scheduler == null;
+        this.ownsConnectExecutor = connectExecutor == null;
+        this.scheduler = ownsScheduler ? createScheduler() : scheduler;
+        this.connectExecutor = ownsConnectExecutor ? createConnectExecutor() : connectExecutor;
+        this.sendExecutor = createSendExecutor();
+        this.identServer = identServer;
+        this.outboundQueue = configuration.getBotFactory().createOutboundQueue(this);
+    }
+
+    protected ScheduledExecutorService createScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("bot" + botId + "-scheduler")
+                .daemon(true)
+                .build());
+    }
+
+    protected ExecutorService createConnectExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new BasicThreadFactory.Builder()
+                .namingPattern("bot" + botId + "-reconnect")
+                .daemon(true)
+                .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    protected ExecutorService createSendExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new BasicThreadFactory.Builder()
+                .namingPattern("bot" + botId + "-sender")
+                .daemon(true)
+                .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     public void startBot() throws IOException, IrcException {
+        synchronized (this) {
+            if (sendExecutor.isShutdown()) {
+                sendExecutor = createSendExecutor();
+            }
+            if (ownsScheduler && scheduler.isShutdown()) {
+                scheduler = createScheduler();
+            }
+            if (ownsConnectExecutor && connectExecutor.isShutdown()) {
+                connectExecutor = createConnectExecutor();
+            }
+        }
         reconnectStopped = false;
         connect();
     }
 
     public void stopBotReconnect() {
         reconnectStopped = true;
+        ScheduledFuture<?> reconnectFutureLocal = reconnectFuture;
+        if (reconnectFutureLocal != null) {
+            reconnectFutureLocal.cancel(false);
+        }
+        if (!isConnected()) {
+            releaseExecutors();
+        }
+    }
+
+    protected synchronized void releaseExecutors() {
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+        if (ownsConnectExecutor) {
+            connectExecutor.shutdown();
+        }
+        sendExecutor.shutdown();
+    }
+
+    public ScheduledFuture<?> scheduleSend(Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(() -> {
+            try {
+                sendExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                PircBotY.getLogger().log(Level.FINE, "Send task of bot " + botId + " was rejected", e);
+            }
+        }, delay, unit);
+    }
+
+    public boolean awaitDisconnect(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread inputThread = inputProcessor;
+        if (inputThread == null || inputThread == Thread.currentThread()) {
+            return true;
+        }
+        inputThread.join(Math.max(unit.toMillis(timeout), 1));
+        return !inputThread.isAlive();
+    }
+
+    protected void scheduleReconnect() {
+        if (!configuration.isAutoReconnect() || reconnectStopped) {
+            releaseExecutors();
+            return;
+        }
+        long delay = getReconnectDelay(reconnectAttempt);
+        PircBotY.getLogger().log(Level.INFO, "Reconnecting to " + getServer() + " in " + delay + "ms");
+        try {
+            reconnectFuture = scheduler.schedule(() -> {
+                try {
+                    connectExecutor.execute(this::reconnect);
+                } catch (RejectedExecutionException e) {
+                    PircBotY.getLogger().log(Level.WARNING, "Reconnect of bot " + botId + " was rejected", e);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            PircBotY.getLogger().log(Level.WARNING, "Cannot schedule reconnect of bot " + botId, e);
+        }
+    }
+
+    protected long getReconnectDelay(int attempt) {
+        long maxDelay = configuration.getReconnectMaxDelay();
+        long delay = configuration.getReconnectDelay();
+        for (int i = 0; i < attempt && delay < maxDelay; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, maxDelay);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    protected void reconnect() {
+        if (reconnectStopped || isConnected()) {
+            return;
+        }
+        reconnectAttempt++;
+        ServerEntry server = getServer();
+        try {
+            connect();
+            configuration.getListenerManager().dispatchEvent(new ReconnectEvent(this, reconnectAttempt, server, true, getDisconnectedTime(), null));
+            reconnectAttempt = 0;
+        } catch (IOException | IrcException | RuntimeException e) {
+            PircBotY.getLogger().log(Level.SEVERE, "Exception encountered while reconnecting to " + server + " (attempt " + reconnectAttempt + ")", e);
+            configuration.getListenerManager().dispatchEvent(new ReconnectEvent(this, reconnectAttempt, server, false, getDisconnectedTime(), e));
+            serverIndex = (serverIndex + 1) % configuration.getServers().size();
+            scheduleReconnect();
+        }
+    }
+
+    public ServerEntry getServer() {
+        List<ServerEntry> servers = configuration.getServers();
+        return servers.get(serverIndex % servers.size());
+    }
+
+    public int getReconnectAttempt() {
+        return reconnectAttempt;
+    }
+
+    public long getDisconnectedTime() {
+        long disconnectedSinceLocal = disconnectedSince;
+        return (disconnectedSinceLocal == -1) ? 0 : System.currentTimeMillis() - disconnectedSinceLocal;
+    }
+
+    public long getTotalDisconnectedTime() {
+        return totalDisconnectedTime + getDisconnectedTime();
     }
 
     protected void connect() throws IOException, IrcException {
@@ -82,7 +266,9 @@ public class PircBotY implements Comparable<PircBotY> {
         if (getState() == State.CONNECTED) {
             throw new RuntimeException("Bot is not connected but state is State.CONNECTED. This shouldn't happen");
         }
-        this.userChannelDao = configuration.getBotFactory().createUserChannelDao(this);
+        if (userChannelDao == null || !configuration.isPreserveStateOnReconnect()) {
+            this.userChannelDao = configuration.getBotFactory().createUserChannelDao(this);
+        }
         this.serverInfo = configuration.getBotFactory().createServerInfo(this);
         this.outputRaw = configuration.getBotFactory().createOutputRaw(this);
         this.outputIRC = configuration.getBotFactory().createOutputIRC(this);
@@ -90,57 +276,87 @@ public class PircBotY implements Comparable<PircBotY> {
         this.outputDCC = configuration.getBotFactory().createOutputDCC(this);
         this.dccHandler = configuration.getBotFactory().createDccHandler(this);
         this.inputParser = configuration.getBotFactory().createInputParser(this);
+        this.keepAlive = configuration.getBotFactory().createKeepAlive(this);
+        this.requestTracker = configuration.getBotFactory().createRequestTracker(this);
         enabledCapabilities.clear();
         getLogger().info("Settings set, starting connection");
-        if (configuration.isIdentServerEnabled()) {
-            identServer = new IdentServer(configuration.getEncoding(), configuration.getIdentServerIP(), configuration.getIdentServerPort());
+        if (configuration.isIdentServerEnabled() && identServer == null) {
+            identServer = new IdentServer(configuration.getEncoding(), configuration.getIdentServerIP(), configuration.getIdentServerPort(), configuration.getHostResolver());
             identServer.start();
         }
         getLogger().info("Starting IRC connection attempt");
-        for (InetAddress curAddress : InetAddress.getAllByName(configuration.getServerHostname())) {
-            PircBotY.getLogger().log(Level.INFO, "Trying address " + curAddress);
-            try {
-                socket = configuration.getSocketFactory().createSocket(curAddress, configuration.getServerPort(), configuration.getLocalAddress(), 0);
-                break;
-            } catch (IOException e) {
-                PircBotY.getLogger().log(Level.INFO, "Unable to connect to " + configuration.getServerHostname() + " using the IP address " + curAddress.getHostAddress() + ", trying to check another address.", e);
-            }
-        }
-        if (socket == null || (socket != null && !socket.isConnected())) {
-            throw new IOException("Unable to connect to the IRC network " + configuration.getServerHostname());
+        ServerEntry server = getServer();
+        socket = configuration.getBotFactory().createSocketConnector(this).connect(server.getHostname(), server.getPort());
+        socket.setSoTimeout(configuration.getSocketTimeout());
+        if (socket instanceof SSLSocket) {
+            handshake((SSLSocket) socket);
         }
         state = State.CONNECTED;
-        socket.setSoTimeout(configuration.getSocketTimeout());
         PircBotY.getLogger().info("Connected to server.");
         inputReader = new BufferedReader(new InputStreamReader(socket.getInputStream(), configuration.getEncoding()));
         outputWriter = new OutputStreamWriter(socket.getOutputStream(), configuration.getEncoding());
         configuration.getListenerManager().dispatchEvent(new SocketConnectEvent(this));
-        sendRaw().rawLine("CAP REQ account-notify");
-        sendRaw().rawLine("CAP END");
         if (configuration.isIdentServerEnabled()) {
             identServer.addIdentEntry(socket.getInetAddress(), socket.getPort(), socket.getLocalPort(), configuration.getLogin());
         }
-        if (configuration.isCapEnabled()) {
-            sendCAP().requestSupported();
-        }
+        List<String> registration = new ArrayList<>();
         if (configuration.isWebIrcEnabled()) {
-            sendRaw().rawLineNow("WEBIRC " + configuration.getWebIrcPassword()
+            registration.add("WEBIRC " + configuration.getWebIrcPassword()
                     + " " + configuration.getWebIrcUsername()
                     + " " + configuration.getWebIrcHostname()
                     + " " + configuration.getWebIrcAddress().getHostAddress());
         }
+        if (configuration.isCapEnabled()) {
+            registration.add("CAP LS 302");
+        } else {
+            registration.add("CAP REQ account-notify");
+            registration.add("CAP END");
+        }
         if (StringUtils.isNotBlank(configuration.getServerPassword())) {
-            sendRaw().rawLineNow("PASS " + configuration.getServerPassword());
+            registration.add("PASS " + configuration.getServerPassword());
         }
-        sendRaw().rawLineNow("NICK " + configuration.getName());
-        sendRaw().rawLineNow("USER " + configuration.getLogin() + " 8 * :" + configuration.getRealName());
+        registration.add("NICK " + getRegistrationNick());
+        registration.add("USER " + configuration.getLogin() + " 8 * :" + configuration.getRealName());
+        sendRaw().rawLinesNow(registration);
         inputProcessor = new InputProcessor();
         inputProcessor.start();
     }
 
+    protected void handshake(SSLSocket sslSocket) throws IOException {
+        long start = System.currentTimeMillis();
+        try {
+            sslSocket.startHandshake();
+        } catch (IOException e) {
+            sslSocket.close();
+            throw e;
+        }
+        handshakeTime = System.currentTimeMillis() - start;
+        sessionResumed = sslSocket.getSession().getCreationTime() < start;
+        PircBotY.getLogger().log(Level.INFO, "TLS handshake with " + sslSocket.getInetAddress() + " completed in " + handshakeTime + "ms"
+                + (sessionResumed ? " (session resumed)" : ""));
+    }
+
+    protected void sendRawLinesToServer(List<String> lines) {
+        int realMaxLineLength = configuration.getMaxLineLength() - 2;
+        StringBuilder output = new StringBuilder();
+        for (String curLine : lines) {
+            if (curLine.length() > realMaxLineLength / 4 && Utils.getEncodedLength(curLine, configuration.getEncoding()) > realMaxLineLength) {
+                curLine = Utils.truncateToEncodedLength(curLine, realMaxLineLength, configuration.getEncoding());
+            }
+            output.append(curLine).append("\r\n");
+        }
+        try {
+            outputWriter.write(output.toString());
+            outputWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Exception encountered when writing to socket", e);
+        }
+    }
+
     protected void sendRawLineToServer(String line) {
-        if (line.length() > configuration.getMaxLineLength() - 2) {
-            line = line.substring(0, configuration.getMaxLineLength() - 2);
+        int realMaxLineLength = configuration.getMaxLineLength() - 2;
+        if (line.length() > realMaxLineLength / 4 && Utils.getEncodedLength(line, configuration.getEncoding()) > realMaxLineLength) {
+            line = Utils.truncateToEncodedLength(line, realMaxLineLength, configuration.getEncoding());
         }
         try {
             outputWriter.write(line + "\r\n");
@@ -152,8 +368,13 @@ public class PircBotY implements Comparable<PircBotY> {
 
     protected void loggedIn(String nick) {
         this.loggedIn = true;
+        if (disconnectedSince != -1) {
+            totalDisconnectedTime += System.currentTimeMillis() - disconnectedSince;
+            disconnectedSince = -1;
+        }
         setNick(nick);
-        if (configuration.isShutdownHookEnabled()) {
+        keepAlive.start();
+        if (configuration.isShutdownHookEnabled() && shutdownHook == null) {
             Runtime.getRuntime().addShutdownHook(shutdownHook = new PircBotY.BotShutdownHook(this));
         }
     }
@@ -206,6 +427,18 @@ public class PircBotY implements Comparable<PircBotY> {
         return outputCAP;
     }
 
+    public OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public ExecutorService getSendExecutor() {
+        return sendExecutor;
+    }
+
     public Thread getShutdownHook() {
         return shutdownHook;
     }
@@ -222,6 +455,36 @@ public class PircBotY implements Comparable<PircBotY> {
         return disconnectException;
     }
 
+    protected void closeDeadConnection(IOException cause) {
+        PircBotY.getLogger().log(Level.SEVERE, "Connection considered dead, closing socket", cause);
+        disconnectException = cause;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            PircBotY.getLogger().log(Level.SEVERE, "Can't close socket", e);
+        }
+    }
+
+    public KeepAlive getKeepAlive() {
+        return keepAlive;
+    }
+
+    public RequestTracker getRequestTracker() {
+        return requestTracker;
+    }
+
+    public long getHandshakeTime() {
+        return handshakeTime;
+    }
+
+    public boolean isSessionResumed() {
+        return sessionResumed;
+    }
+
+    public long getLag() {
+        return (keepAlive == null) ? -1 : keepAlive.getLag();
+    }
+
     public DccHandler getDccHandler() {
         return dccHandler;
     }
@@ -238,6 +501,14 @@ public class PircBotY implements Comparable<PircBotY> {
         return nick;
     }
 
+    public String getRegistrationNick() {
+        return StringUtils.defaultIfBlank(registrationNick, configuration.getName());
+    }
+
+    public void setRegistrationNick(String registrationNick) {
+        this.registrationNick = registrationNick;
+    }
+
     public boolean isConnected() {
         return socket != null && !socket.isClosed();
     }
@@ -263,6 +534,10 @@ public class PircBotY implements Comparable<PircBotY> {
         return socket.getLocalAddress();
     }
 
+    protected void setReconnectChannels(Map<String, String> reconnectChannels) {
+        this.reconnectChannels = ImmutableMap.copyOf(reconnectChannels);
+    }
+
     protected ImmutableMap<String, String> reconnectChannels() {
         ImmutableMap<String, String> reconnectChannelsLocal = reconnectChannels;
         reconnectChannels = null;
@@ -279,6 +554,10 @@ public class PircBotY implements Comparable<PircBotY> {
             throw new RuntimeException("Cannot call shutdown twice");
         }
         state = State.DISCONNECTED;
+        disconnectedSince = System.currentTimeMillis();
+        outboundQueue.markDisconnected();
+        keepAlive.stop();
+        requestTracker.failAll(new IOException("Disconnected before the server replied"));
         try {
             socket.close();
         } catch (IOException e) {
@@ -299,7 +578,11 @@ public class PircBotY implements Comparable<PircBotY> {
         reconnectChannels = reconnectChannelsBuilder.build();
         loggedIn = false;
         daoSnapshot = userChannelDao.createSnapshot();
-        userChannelDao.close();
+        if (configuration.isPreserveStateOnReconnect() && !noReconnect && !reconnectStopped) {
+            userChannelDao.markStale();
+        } else {
+            userChannelDao.close();
+        }
         inputParser.close();
         dccHandler.close();
         configuration.getListenerManager().dispatchEvent(new DisconnectEvent(this, daoSnapshot, disconnectException));
@@ -333,7 +616,9 @@ public class PircBotY implements Comparable<PircBotY> {
                         PircBotY.getLogger().info("Shutdown has been called, closing InputParser");
                         return;
                     } else {
-                        disconnectException = e;
+                        if (disconnectException == null) {
+                            disconnectException = e;
+                        }
                         PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when reading next line from server", e);
                         line = null;
                     }
@@ -351,13 +636,7 @@ public class PircBotY implements Comparable<PircBotY> {
                 }
             }
             shutdown();
-            if (configuration.isAutoReconnect() && !reconnectStopped) {
-                try {
-                    connect();
-                } catch (IOException | IrcException ex) {
-                    PircBotY.getLogger().log(Level.SEVERE, "Exception encountered while reconnecting", ex);
-                }
-            }
+            scheduleReconnect();
         }
     }
 
@@ -20,6 +20,11 @@ public class ProxySocketFactory extends SocketFactory {
         this.proxy = new Proxy(proxyType, new InetSocketAddress(hostname, port));
     }
 
+    @Override
+    public Socket createSocket() throws IOException {
+        return new Socket(proxy);
+    }
+
     @Override
     public Socket createSocket(String string, int i) throws IOException, UnknownHostException {
         Socket socket = new Socket(proxy);
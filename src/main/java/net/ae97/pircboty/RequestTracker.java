@@ -0,0 +1,112 @@
+package net.ae97.pircboty;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import net.ae97.pircboty.api.events.ChannelInfoEvent;
+import net.ae97.pircboty.api.events.UserListEvent;
+import net.ae97.pircboty.api.events.WhoisEvent;
+import org.apache.commons.lang3.Validate;
+
+public class RequestTracker {
+
+    private final PircBotY bot;
+    private final Configuration<PircBotY> configuration;
+    private final Map<String, PendingRequest<?>> pending = new ConcurrentHashMap<>();
+
+    public RequestTracker(PircBotY bot) {
+        this.bot = bot;
+        this.configuration = bot.getConfiguration();
+    }
+
+    public CompletableFuture<WhoisEvent> whois(String nick) {
+        Validate.notBlank(nick, "Nick cannot be blank");
+        return request(ReplyConstants.RPL_ENDOFWHOIS, nick, "WHOIS " + nick + " " + nick);
+    }
+
+    public CompletableFuture<UserListEvent> who(String channel) {
+        Validate.notBlank(channel, "Channel cannot be blank");
+        return request(ReplyConstants.RPL_ENDOFWHO, channel, "WHO " + channel);
+    }
+
+    public CompletableFuture<String> mode(String channel) {
+        Validate.notBlank(channel, "Channel cannot be blank");
+        return request(ReplyConstants.RPL_CHANNELMODEIS, channel, "MODE " + channel);
+    }
+
+    public CompletableFuture<ChannelInfoEvent> list() {
+        return request(ReplyConstants.RPL_LISTEND, "", "LIST");
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T> CompletableFuture<T> request(ReplyConstants reply, String target, String rawLine) {
+        String key = getKey(reply.getValue(), target);
+        PendingRequest<T> newRequest = new PendingRequest<>(key);
+        PendingRequest<?> request = pending.putIfAbsent(key, newRequest);
+        if (request != null) {
+            return (CompletableFuture<T>) request.future;
+        }
+        newRequest.timeoutFuture = bot.getScheduler().schedule(() -> {
+            newRequest.future.completeExceptionally(new TimeoutException("No reply to " + rawLine + " within " + configuration.getRequestTimeout() + "ms"));
+        }, configuration.getRequestTimeout(), TimeUnit.MILLISECONDS);
+        newRequest.future.whenComplete((result, error) -> {
+            pending.remove(key, newRequest);
+            newRequest.timeoutFuture.cancel(false);
+        });
+        bot.sendRaw().rawLine(rawLine);
+        return newRequest.future;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean complete(ReplyConstants reply, String target, Object result) {
+        PendingRequest<?> request = pending.get(getKey(reply.getValue(), target));
+        if (request == null) {
+            return false;
+        }
+        return ((CompletableFuture<Object>) request.future).complete(result);
+    }
+
+    public boolean fail(ReplyConstants reply, String target, Throwable cause) {
+        PendingRequest<?> request = pending.get(getKey(reply.getValue(), target));
+        if (request == null) {
+            return false;
+        }
+        return request.future.completeExceptionally(cause);
+    }
+
+    public void failAll(Throwable cause) {
+        for (PendingRequest<?> curRequest : pending.values()) {
+            if (curRequest.future.completeExceptionally(cause)) {
+                PircBotY.getLogger().log(Level.FINE, "Failed pending request " + curRequest.key, cause);
+            }
+        }
+    }
+
+    public boolean isPending(ReplyConstants reply, String target) {
+        return pending.containsKey(getKey(reply.getValue(), target));
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    protected String getKey(int code, String target) {
+        return code + " " + target.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static class PendingRequest<T> {
+
+        private final String key;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timeoutFuture;
+
+        public PendingRequest(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package net.ae97.pircboty;
+
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import org.apache.commons.lang3.Validate;
+
+public class SSLContextCache {
+
+    private static final SSLContextCache DEFAULT_CACHE = new SSLContextCache();
+    private final Map<String, SSLContext> contexts = new HashMap<>();
+    private int sessionCacheSize = 64;
+    private int sessionTimeout = 60 * 60 * 24;
+
+    public static SSLContextCache getDefault() {
+        return DEFAULT_CACHE;
+    }
+
+    public SSLContext getContext(String hostname) throws GeneralSecurityException {
+        return getContext(hostname, false);
+    }
+
+    public synchronized SSLContext getContext(String hostname, boolean trustAllCertificates) throws GeneralSecurityException {
+        Validate.notBlank(hostname, "Hostname cannot be blank");
+        String key = (trustAllCertificates ? "trustall:" : "") + hostname.toLowerCase(Locale.ENGLISH);
+        SSLContext context = contexts.get(key);
+        if (context == null) {
+            context = SSLContext.getInstance("TLS");
+            TrustManager[] trustManagers = trustAllCertificates ? new TrustManager[]{new UtilSSLSocketFactory.TrustingX509TrustManager()} : null;
+            context.init(null, trustManagers, null);
+            configureSessionContext(context.getClientSessionContext());
+            contexts.put(key, context);
+        }
+        return context;
+    }
+
+    protected void configureSessionContext(SSLSessionContext sessionContext) {
+        sessionContext.setSessionCacheSize(sessionCacheSize);
+        sessionContext.setSessionTimeout(sessionTimeout);
+    }
+
+    public synchronized void invalidate(String hostname) {
+        String lowerHostname = hostname.toLowerCase(Locale.ENGLISH);
+        contexts.remove(lowerHostname);
+        contexts.remove("trustall:" + lowerHostname);
+    }
+
+    public synchronized void clear() {
+        contexts.clear();
+    }
+
+    public synchronized int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    public synchronized void setSessionCacheSize(int sessionCacheSize) {
+        Validate.isTrue(sessionCacheSize >= 0, "Session cache size must be positive");
+        this.sessionCacheSize = sessionCacheSize;
+        for (SSLContext curContext : contexts.values()) {
+            curContext.getClientSessionContext().setSessionCacheSize(sessionCacheSize);
+        }
+    }
+
+    public synchronized int getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public synchronized void setSessionTimeout(int sessionTimeout) {
+        Validate.isTrue(sessionTimeout >= 0, "Session timeout must be positive");
+        this.sessionTimeout = sessionTimeout;
+        for (SSLContext curContext : contexts.values()) {
+            curContext.getClientSessionContext().setSessionTimeout(sessionTimeout);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package net.ae97.pircboty;
+
+public class ServerEntry {
+
+    private final String hostname;
+    private final int port;
+
+    public ServerEntry(String hostname, int port) {
+        this.hostname = hostname;
+        this.port = port;
+    }
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public String toString() {
+        return hostname + ":" + port;
+    }
+}
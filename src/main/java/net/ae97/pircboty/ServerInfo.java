@@ -3,8 +3,10 @@ package net.ae97.pircboty;
 import com.google.common.collect.ImmutableMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
+import org.apache.commons.lang3.StringUtils;
 
 public class ServerInfo {
 
@@ -19,6 +21,7 @@ public class ServerInfo {
     private int maxModes;
     private int maxChannels;
     private String chanlimit;
+    private ImmutableMap<String, Integer> channelLimits = ImmutableMap.of();
     private int maxNickLength;
     private int maxBans;
     private ImmutableMap<String, Integer> maxList;
@@ -47,6 +50,7 @@ public class ServerInfo {
     private boolean cPrivMsgExists;
     private boolean cNoticeExists;
     private int maxTargets;
+    private ImmutableMap<String, Integer> targetMax = ImmutableMap.of();
     private boolean knockExists;
     private boolean vChannels;
     private int watchMax;
@@ -103,6 +107,13 @@ public class ServerInfo {
                 maxChannels = Integer.parseInt(value);
             } else if (key.equalsIgnoreCase("CHANLIMIT")) {
                 chanlimit = value;
+                ImmutableMap.Builder<String, Integer> channelLimitsBuilder = new ImmutableMap.Builder<>();
+                for (String curLimit : StringUtils.split(value, ',')) {
+                    String[] limitParts = curLimit.split(":", 2);
+                    int max = (limitParts.length == 2 && !limitParts[1].isEmpty()) ? Utils.tryParseInt(limitParts[1], Integer.MAX_VALUE) : Integer.MAX_VALUE;
+                    channelLimitsBuilder.put(limitParts[0], max);
+                }
+                channelLimits = channelLimitsBuilder.build();
             } else if (key.equalsIgnoreCase("NICKLEN")) {
                 maxNickLength = Integer.parseInt(value);
             } else if (key.equalsIgnoreCase("MAXBANS")) {
@@ -162,8 +173,16 @@ public class ServerInfo {
                 callerID = true;
             } else if (key.equalsIgnoreCase("USERIP")) {
                 userIPExists = true;
-            } else if (key.equalsIgnoreCase("CNOTICE")) {
-                cNoticeExists = true;
+            } else if (key.equalsIgnoreCase("MAXTARGETS")) {
+                maxTargets = Utils.tryParseInt(value, 0);
+            } else if (key.equalsIgnoreCase("TARGMAX")) {
+                ImmutableMap.Builder<String, Integer> targetMaxBuilder = new ImmutableMap.Builder<>();
+                for (String curTarget : StringUtils.split(value, ',')) {
+                    String[] targetParts = curTarget.split(":", 2);
+                    int max = (targetParts.length == 2 && !targetParts[1].isEmpty()) ? Utils.tryParseInt(targetParts[1], 1) : Integer.MAX_VALUE;
+                    targetMaxBuilder.put(targetParts[0].toUpperCase(Locale.ENGLISH), max);
+                }
+                targetMax = targetMaxBuilder.build();
             }
         }
     }
@@ -212,6 +231,13 @@ public class ServerInfo {
         return chanlimit;
     }
 
+    public ImmutableMap<String, Integer> getChannelLimits() {
+        if (!channelLimits.isEmpty() || maxChannels <= 0) {
+            return channelLimits;
+        }
+        return ImmutableMap.of((channelTypes != null) ? channelTypes : bot.getConfiguration().getChannelPrefixes(), maxChannels);
+    }
+
     public int getMaxNickLength() {
         return maxNickLength;
     }
@@ -324,6 +350,18 @@ public class ServerInfo {
         return maxTargets;
     }
 
+    public ImmutableMap<String, Integer> getTargetMax() {
+        return targetMax;
+    }
+
+    public int getMaxTargets(String command) {
+        Integer max = targetMax.get(command.toUpperCase(Locale.ENGLISH));
+        if (max != null) {
+            return max;
+        }
+        return (maxTargets > 0) ? maxTargets : 1;
+    }
+
     public boolean isKnockExists() {
         return knockExists;
     }
@@ -432,6 +470,10 @@ public class ServerInfo {
         this.chanlimit = chanlimit;
     }
 
+    protected void setChannelLimits(ImmutableMap<String, Integer> channelLimits) {
+        this.channelLimits = channelLimits;
+    }
+
     protected void setMaxNickLength(int maxNickLength) {
         this.maxNickLength = maxNickLength;
     }
@@ -544,6 +586,10 @@ public class ServerInfo {
         this.maxTargets = maxTargets;
     }
 
+    protected void setTargetMax(ImmutableMap<String, Integer> targetMax) {
+        this.targetMax = targetMax;
+    }
+
     protected void setKnockExists(boolean knockExists) {
         this.knockExists = knockExists;
     }
@@ -0,0 +1,159 @@
+package net.ae97.pircboty;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javax.net.SocketFactory;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class SocketConnector {
+
+    private final PircBotY bot;
+    private final Configuration<PircBotY> configuration;
+    private final Set<Socket> pendingSockets = new HashSet<>();
+    private boolean finished = false;
+
+    public SocketConnector(PircBotY bot) {
+        this.bot = bot;
+        this.configuration = bot.getConfiguration();
+    }
+
+    public Socket connect(String hostname, int port) throws IOException {
+        List<InetAddress> addresses = sortAddresses(configuration.getHostResolver().resolve(hostname));
+        if (addresses.size() == 1) {
+            PircBotY.getLogger().log(Level.INFO, "Trying address " + addresses.get(0));
+            return connectAddress(addresses.get(0), port);
+        }
+        synchronized (pendingSockets) {
+            finished = false;
+        }
+        ExecutorService pool = Executors.newCachedThreadPool(new BasicThreadFactory.Builder()
+                .namingPattern("bot" + bot.getBotId() + "-connect-%d")
+                .daemon(true)
+                .build());
+        CompletionService<Socket> attempts = new ExecutorCompletionService<>(pool);
+        Socket connectedSocket = null;
+        IOException lastException = null;
+        int nextAddress = 0;
+        int activeAttempts = 0;
+        try {
+            while (true) {
+                if (nextAddress < addresses.size()) {
+                    final InetAddress curAddress = addresses.get(nextAddress++);
+                    PircBotY.getLogger().log(Level.INFO, "Trying address " + curAddress);
+                    attempts.submit(() -> connectAddress(curAddress, port));
+                    activeAttempts++;
+                }
+                if (activeAttempts == 0) {
+                    break;
+                }
+                Future<Socket> result = (nextAddress < addresses.size())
+                        ? attempts.poll(configuration.getConnectAttemptDelay(), TimeUnit.MILLISECONDS)
+                        : attempts.take();
+                if (result == null) {
+                    continue;
+                }
+                activeAttempts--;
+                try {
+                    connectedSocket = result.get();
+                    return connectedSocket;
+                } catch (ExecutionException e) {
+                    lastException = (e.getCause() instanceof IOException) ? (IOException) e.getCause() : new IOException(e.getCause());
+                    PircBotY.getLogger().log(Level.INFO, "Unable to connect to " + hostname + ", trying to check another address.", lastException);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while connecting to " + hostname);
+        } finally {
+            synchronized (pendingSockets) {
+                finished = true;
+                for (Socket curSocket : pendingSockets) {
+                    if (curSocket != connectedSocket) {
+                        closeQuietly(curSocket);
+                    }
+                }
+                pendingSockets.clear();
+            }
+            pool.shutdownNow();
+        }
+        throw new IOException("Unable to connect to the IRC network " + hostname, lastException);
+    }
+
+    protected Socket connectAddress(InetAddress address, int port) throws IOException {
+        SocketFactory socketFactory = configuration.getSocketFactory();
+        Socket socket;
+        try {
+            socket = socketFactory.createSocket();
+        } catch (SocketException | UnsupportedOperationException e) {
+            return socketFactory.createSocket(address, port, configuration.getLocalAddress(), 0);
+        }
+        synchronized (pendingSockets) {
+            pendingSockets.add(socket);
+        }
+        try {
+            if (configuration.getLocalAddress() != null) {
+                socket.bind(new InetSocketAddress(configuration.getLocalAddress(), 0));
+            }
+            socket.connect(new InetSocketAddress(address, port), configuration.getConnectTimeout());
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw new IOException("Unable to connect using the IP address " + address.getHostAddress(), e);
+        }
+        synchronized (pendingSockets) {
+            if (finished) {
+                closeQuietly(socket);
+                throw new IOException("Connection to " + address.getHostAddress() + " no longer needed");
+            }
+        }
+        return socket;
+    }
+
+    protected List<InetAddress> sortAddresses(InetAddress[] resolved) {
+        LinkedList<InetAddress> preferred = new LinkedList<>();
+        LinkedList<InetAddress> other = new LinkedList<>();
+        boolean preferIpv6 = resolved.length > 0 && resolved[0] instanceof Inet6Address;
+        for (InetAddress curAddress : resolved) {
+            if ((curAddress instanceof Inet6Address) == preferIpv6) {
+                preferred.add(curAddress);
+            } else {
+                other.add(curAddress);
+            }
+        }
+        List<InetAddress> addresses = new ArrayList<>(resolved.length);
+        while (!preferred.isEmpty() || !other.isEmpty()) {
+            if (!preferred.isEmpty()) {
+                addresses.add(preferred.removeFirst());
+            }
+            if (!other.isEmpty()) {
+                addresses.add(other.removeFirst());
+            }
+        }
+        return addresses;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            PircBotY.getLogger().log(Level.FINE, "Could not close abandoned socket", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package net.ae97.pircboty;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import net.ae97.pircboty.api.ListenerAdapter;
+import net.ae97.pircboty.api.events.DisconnectEvent;
+import net.ae97.pircboty.exception.IrcException;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class StandbyBot {
+
+    private static final long NICK_RECLAIM_DELAY = 1000 * 30;
+    private final Configuration<PircBotY> configuration;
+    private final PircBotY primary;
+    private final PircBotY standby;
+    private final Map<String, String> channels = new LinkedHashMap<>();
+    private final ExecutorService startPool;
+    private PircBotY active;
+    private boolean stopped = false;
+
+    public StandbyBot(Configuration<PircBotY> configuration, String standbyNick) {
+        Validate.notNull(configuration, "Configuration cannot be null");
+        Validate.notBlank(standbyNick, "Standby nick cannot be blank");
+        Validate.isTrue(!standbyNick.equalsIgnoreCase(configuration.getName()), "Standby nick must differ from the primary nick");
+        this.configuration = configuration;
+        channels.putAll(configuration.getAutoJoinChannels());
+        Configuration.Builder<PircBotY> primaryBuilder = new Configuration.Builder<>(configuration)
+                .setAutoReconnect(true)
+                .setAutoNickChange(true);
+        primaryBuilder.getAutoJoinChannels().clear();
+        Configuration.Builder<PircBotY> standbyBuilder = new Configuration.Builder<>(primaryBuilder)
+                .setName(standbyNick);
+        this.primary = new PircBotY(primaryBuilder.buildConfiguration());
+        this.standby = new PircBotY(standbyBuilder.buildConfiguration());
+        this.active = primary;
+        this.startPool = Executors.newCachedThreadPool(new BasicThreadFactory.Builder()
+                .namingPattern("standbyBot-start%d")
+                .daemon(true)
+                .build());
+        configuration.getListenerManager().addListener(new StandbyListener());
+    }
+
+    public void start() {
+        synchronized (this) {
+            primary.setReconnectChannels(channels);
+        }
+        startBot(primary);
+        startBot(standby);
+    }
+
+    protected void startBot(final PircBotY bot) {
+        startPool.execute(() -> {
+            try {
+                bot.startBot();
+            } catch (IOException | IrcException e) {
+                PircBotY.getLogger().log(Level.SEVERE, "Could not start bot " + bot.getBotId(), e);
+                bot.scheduleReconnect();
+            }
+        });
+    }
+
+    public void stop() {
+        synchronized (this) {
+            stopped = true;
+        }
+        for (PircBotY curBot : new PircBotY[]{primary, standby}) {
+            curBot.stopBotReconnect();
+            if (curBot.isConnected()) {
+                curBot.sendIRC().quitServer();
+            }
+        }
+        startPool.shutdownNow();
+    }
+
+    public synchronized PircBotY getActive() {
+        return active;
+    }
+
+    public synchronized PircBotY getStandby() {
+        return (active == primary) ? standby : primary;
+    }
+
+    public synchronized boolean isStandbyReady() {
+        PircBotY standbyLocal = (active == primary) ? standby : primary;
+        return standbyLocal.isConnected() && standbyLocal.isLoggedIn();
+    }
+
+    protected void failover(PircBotY failed) {
+        PircBotY replacement;
+        Map<String, String> failedChannels;
+        synchronized (this) {
+            if (stopped || failed != active) {
+                return;
+            }
+            replacement = (failed == primary) ? standby : primary;
+            if (!replacement.isConnected() || !replacement.isLoggedIn()) {
+                PircBotY.getLogger().log(Level.WARNING, "Standby bot " + replacement.getBotId() + " is not ready, waiting for reconnect");
+                return;
+            }
+            active = replacement;
+            failed.setRegistrationNick(replacement.getRegistrationNick());
+            replacement.setRegistrationNick(configuration.getName());
+            failedChannels = failed.reconnectChannels();
+            if (failedChannels != null) {
+                channels.clear();
+                channels.putAll(failedChannels);
+            }
+        }
+        PircBotY.getLogger().log(Level.INFO, "Failing over from bot " + failed.getBotId() + " to standby bot " + replacement.getBotId());
+        replacement.sendIRC().changeNick(configuration.getName());
+        joinChannels(replacement);
+        for (String curLine : failed.getOutboundQueue().drain()) {
+            replacement.sendRaw().rawLine(curLine);
+        }
+        replacement.scheduleSend(() -> reclaimNick(replacement), NICK_RECLAIM_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    protected void reclaimNick(PircBotY bot) {
+        PircBotY other;
+        synchronized (this) {
+            if (stopped || bot != active || !bot.isConnected()) {
+                return;
+            }
+            other = (bot == primary) ? standby : primary;
+        }
+        String nick = configuration.getName();
+        if (bot.getNick().equalsIgnoreCase(nick)) {
+            return;
+        }
+        boolean otherHoldsNick = other.isConnected() && other.getNick().equalsIgnoreCase(nick);
+        if (otherHoldsNick) {
+            other.sendIRC().changeNick(other.getRegistrationNick());
+        }
+        bot.sendIRC().changeNick(nick);
+        if (!otherHoldsNick && other.isConnected()) {
+            PircBotY.getLogger().log(Level.INFO, "Nick " + nick + " is not held by bot " + other.getBotId() + ", no longer reclaiming it");
+            return;
+        }
+        bot.scheduleSend(() -> reclaimNick(bot), NICK_RECLAIM_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    protected void joinChannels(PircBotY bot) {
+        Map<String, String> channelsLocal;
+        synchronized (this) {
+            channelsLocal = new LinkedHashMap<>(channels);
+        }
+        if (!channelsLocal.isEmpty()) {
+            bot.sendIRC().joinChannels(channelsLocal);
+        }
+    }
+
+    private class StandbyListener extends ListenerAdapter {
+
+        @Override
+        public void onDisconnect(DisconnectEvent event) throws Exception {
+            PircBotY bot = event.getBot();
+            if (bot == primary || bot == standby) {
+                failover(bot);
+            }
+        }
+    }
+}
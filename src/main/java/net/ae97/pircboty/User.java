@@ -2,7 +2,7 @@ package net.ae97.pircboty;
 
 import java.util.Set;
 import java.util.UUID;
-import net.ae97.pircboty.api.WaitForQueue;
+import java.util.concurrent.ExecutionException;
 import net.ae97.pircboty.api.events.WhoisEvent;
 import net.ae97.pircboty.output.OutputUser;
 import net.ae97.pircboty.snapshot.UserSnapshot;
@@ -47,19 +47,13 @@ public class User implements Comparable<User> {
     public boolean isVerified() {
         if (login != null) {
             try {
-                bot.sendRaw().rawLine("WHOIS " + getNick() + " " + getNick());
-                WaitForQueue waitForQueue = new WaitForQueue(bot);
-                while (true) {
-                    WhoisEvent event = waitForQueue.waitFor(WhoisEvent.class);
-                    if (!event.getNick().equals(nick)) {
-                        continue;
-                    }
-                    waitForQueue.close();
-                    login = event.getRegisteredAs();
-                    return login != null && !login.isEmpty();
-                }
+                WhoisEvent event = bot.getRequestTracker().whois(getNick()).get();
+                login = event.getRegisteredAs();
+                return login != null && !login.isEmpty();
             } catch (InterruptedException ex) {
                 throw new RuntimeException("Couldn't finish querying user for verified status", ex);
+            } catch (ExecutionException ex) {
+                throw new RuntimeException("Couldn't finish querying user for verified status", ex.getCause());
             }
         } else {
             return true;
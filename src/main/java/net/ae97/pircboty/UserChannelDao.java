@@ -27,6 +27,8 @@ public class UserChannelDao<P extends PircBotY, U extends User, C extends Channe
     private final Map<String, U> userNickMap;
     private final Map<String, C> channelNameMap;
     private final Set<U> privateUsers;
+    private final Map<C, Set<U>> staleChannels = new HashMap<>();
+    private final Map<C, Set<U>> refreshedUsers = new HashMap<>();
     private final Class<P> botClass;
     private final Class<U> userClass;
     private final Class<C> channelClass;
@@ -219,6 +221,7 @@ public class UserChannelDao<P extends PircBotY, U extends User, C extends Channe
     }
 
     protected void removeChannel(C channel) {
+        finishRefresh(channel);
         mainMap.removeChannel(channel);
         levelsMap.values().stream().forEach((curLevelMap) -> {
             curLevelMap.removeChannel(channel);
@@ -229,8 +232,62 @@ public class UserChannelDao<P extends PircBotY, U extends User, C extends Channe
         });
     }
 
+    protected synchronized void markStale() {
+        staleChannels.clear();
+        refreshedUsers.clear();
+        channelNameMap.values().stream().forEach((curChannel) -> {
+            staleChannels.put(curChannel, new HashSet<>(mainMap.getUsers(curChannel)));
+        });
+    }
+
+    public synchronized boolean isStale() {
+        return !staleChannels.isEmpty();
+    }
+
+    public synchronized boolean isStale(C channel) {
+        return staleChannels.containsKey(channel);
+    }
+
+    public synchronized Set<C> getStaleChannels() {
+        return new HashSet<>(staleChannels.keySet());
+    }
+
+    protected synchronized void startRefresh(C channel) {
+        if (!staleChannels.containsKey(channel)) {
+            return;
+        }
+        levelsMap.values().stream().forEach((curLevelMap) -> {
+            curLevelMap.removeChannel(channel);
+        });
+        refreshedUsers.put(channel, new HashSet<>());
+    }
+
+    protected synchronized void markRefreshed(U user, C channel) {
+        Set<U> refreshed = refreshedUsers.get(channel);
+        if (refreshed != null) {
+            refreshed.add(user);
+        }
+    }
+
+    protected synchronized Set<U> getStaleUsers(C channel) {
+        return staleChannels.get(channel);
+    }
+
+    protected synchronized Set<U> getRefreshedUsers(C channel) {
+        return refreshedUsers.get(channel);
+    }
+
+    protected synchronized void finishRefresh(C channel) {
+        staleChannels.remove(channel);
+        refreshedUsers.remove(channel);
+    }
+
     @Override
     public void close() {
+        synchronized (this) {
+            staleChannels.clear();
+            refreshedUsers.clear();
+        }
         mainMap.clear();
         levelsMap.values().stream().forEach((curLevelMap) -> {
             curLevelMap.clear();
@@ -4,32 +4,39 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
+import java.security.GeneralSecurityException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.LinkedList;
 import java.util.List;
-import javax.net.ssl.KeyManager;
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
 public class UtilSSLSocketFactory extends SSLSocketFactory {
 
     private SSLSocketFactory wrappedFactory;
+    private final String hostname;
     private boolean trustingAllCertificates = false;
     private boolean diffieHellmanDisabled = false;
 
     public UtilSSLSocketFactory() {
         wrappedFactory = (SSLSocketFactory) SSLSocketFactory.getDefault();
+        hostname = null;
     }
 
     public UtilSSLSocketFactory(SSLSocketFactory providedFactory) {
         wrappedFactory = providedFactory;
+        hostname = null;
+    }
+
+    public UtilSSLSocketFactory(String hostname) throws CertificateException {
+        this.hostname = hostname;
+        try {
+            wrappedFactory = SSLContextCache.getDefault().getContext(hostname).getSocketFactory();
+        } catch (GeneralSecurityException e) {
+            throw new CertificateException("Can't create socket factory for " + hostname, e);
+        }
     }
 
     public UtilSSLSocketFactory trustAllCertificates() throws CertificateException {
@@ -38,16 +45,17 @@ public class UtilSSLSocketFactory extends SSLSocketFactory {
         }
         trustingAllCertificates = true;
         try {
-            TrustManager[] tm = new TrustManager[]{new TrustingX509TrustManager()};
-            SSLContext context = SSLContext.getInstance("SSL");
-            context.init(new KeyManager[0], tm, new SecureRandom());
-            wrappedFactory = context.getSocketFactory();
-        } catch (KeyManagementException | NoSuchAlgorithmException e) {
+            wrappedFactory = SSLContextCache.getDefault().getContext((hostname == null) ? "*" : hostname, true).getSocketFactory();
+        } catch (GeneralSecurityException e) {
             throw new CertificateException("Can't recreate socket factory that trusts all certificates", e);
         }
         return this;
     }
 
+    public String getHostname() {
+        return hostname;
+    }
+
     protected UtilSSLSocketFactory disableDiffieHellman() {
         diffieHellmanDisabled = true;
         return this;
@@ -67,6 +75,11 @@ public class UtilSSLSocketFactory extends SSLSocketFactory {
         return sslSocket;
     }
 
+    @Override
+    public Socket createSocket() throws IOException {
+        return prepare(wrappedFactory.createSocket());
+    }
+
     @Override
     public Socket createSocket(String host, int port) throws IOException, UnknownHostException {
         return prepare(wrappedFactory.createSocket(host, port));
@@ -102,7 +115,7 @@ public class UtilSSLSocketFactory extends SSLSocketFactory {
         return wrappedFactory.getSupportedCipherSuites();
     }
 
-    private static class TrustingX509TrustManager implements X509TrustManager {
+    protected static class TrustingX509TrustManager implements X509TrustManager {
 
         @Override
         public void checkClientTrusted(X509Certificate[] cert, String authType) throws CertificateException {
@@ -1,10 +1,18 @@
 package net.ae97.pircboty;
 
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.BreakIterator;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.function.Supplier;
 import net.ae97.pircboty.api.Event;
+import net.ae97.pircboty.managers.ListenerManager;
 
 public final class Utils {
 
@@ -15,6 +23,13 @@ public final class Utils {
         bot.getConfiguration().getListenerManager().dispatchEvent(event);
     }
 
+    protected static <E extends Event> void dispatchEvent(PircBotY bot, Class<E> eventClass, Supplier<E> eventSupplier) {
+        ListenerManager listenerManager = bot.getConfiguration().getListenerManager();
+        if (listenerManager.hasSubscribers(eventClass)) {
+            listenerManager.dispatchEvent(eventSupplier.get());
+        }
+    }
+
     public static int tryParseInt(String intString, int defaultValue) {
         try {
             return Integer.parseInt(intString);
@@ -43,6 +58,10 @@ public final class Utils {
         bot.sendRawLineToServer(rawLine);
     }
 
+    public static void sendRawLinesToServer(PircBotY bot, List<String> rawLines) {
+        bot.sendRawLinesToServer(rawLines);
+    }
+
     public static List<String> tokenizeLine(String input) {
         List<String> stringParts = new LinkedList<>();
         if (input == null || input.length() == 0) {
@@ -62,6 +81,92 @@ public final class Utils {
         return stringParts;
     }
 
+    public static int getEncodedLength(CharSequence input, Charset encoding) {
+        return getEncodedLength(input, 0, input.length(), encoding);
+    }
+
+    public static int getEncodedLength(CharSequence input, int start, int end, Charset encoding) {
+        if (encoding.equals(StandardCharsets.UTF_8)) {
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                char curChar = input.charAt(i);
+                if (curChar < 0x80) {
+                    length += 1;
+                } else if (curChar < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(curChar) && i + 1 < end && Character.isLowSurrogate(input.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(curChar)) {
+                    length += 1;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        } else if (encoding.equals(StandardCharsets.ISO_8859_1) || encoding.equals(StandardCharsets.US_ASCII)) {
+            return end - start;
+        }
+        return encoding.encode(CharBuffer.wrap(input, start, end)).remaining();
+    }
+
+    public static String truncateToEncodedLength(String input, int maxLength, Charset encoding) {
+        int length = 0;
+        int i = 0;
+        while (i < input.length()) {
+            int next = input.offsetByCodePoints(i, 1);
+            length += getEncodedLength(input, i, next, encoding);
+            if (length > maxLength) {
+                break;
+            }
+            i = next;
+        }
+        return input.substring(0, i);
+    }
+
+    public static List<String> splitByEncodedLength(String input, int maxLength, Charset encoding, Locale locale) {
+        List<String> parts = new ArrayList<>();
+        BreakIterator graphemes = BreakIterator.getCharacterInstance(locale);
+        graphemes.setText(input);
+        int start = 0;
+        int length = 0;
+        int spaceIndex = -1;
+        int lengthBeforeSpace = 0;
+        int graphemeStart = graphemes.first();
+        for (int graphemeEnd = graphemes.next(); graphemeEnd != BreakIterator.DONE; graphemeStart = graphemeEnd, graphemeEnd = graphemes.next()) {
+            int graphemeLength = getEncodedLength(input, graphemeStart, graphemeEnd, encoding);
+            boolean space = graphemeEnd - graphemeStart == 1 && input.charAt(graphemeStart) == ' ';
+            if (space && length + graphemeLength > maxLength && graphemeStart > start) {
+                parts.add(input.substring(start, graphemeStart));
+                start = graphemeEnd;
+                length = 0;
+                spaceIndex = -1;
+                continue;
+            }
+            while (length + graphemeLength > maxLength && graphemeStart > start) {
+                if (spaceIndex > start) {
+                    parts.add(input.substring(start, spaceIndex));
+                    length -= lengthBeforeSpace + getEncodedLength(input, spaceIndex, spaceIndex + 1, encoding);
+                    start = spaceIndex + 1;
+                } else {
+                    parts.add(input.substring(start, graphemeStart));
+                    length = 0;
+                    start = graphemeStart;
+                }
+                spaceIndex = -1;
+            }
+            if (space) {
+                spaceIndex = graphemeStart;
+                lengthBeforeSpace = length;
+            }
+            length += graphemeLength;
+        }
+        if (start < input.length()) {
+            parts.add(input.substring(start));
+        }
+        return parts;
+    }
+
     public static <O extends Object> Set<O> castSet(Set<? extends O> list, Class<O> cl) {
         Set<O> casted = new LinkedHashSet<>();
         list.stream().forEach((o) -> {
@@ -1,5 +1,19 @@
 package net.ae97.pircboty.api;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import net.ae97.pircboty.api.events.ActionEvent;
 import net.ae97.pircboty.api.events.ChannelInfoEvent;
 import net.ae97.pircboty.api.events.ConnectEvent;
@@ -11,6 +25,7 @@ import net.ae97.pircboty.api.events.IncomingFileTransferEvent;
 import net.ae97.pircboty.api.events.InviteEvent;
 import net.ae97.pircboty.api.events.JoinEvent;
 import net.ae97.pircboty.api.events.KickEvent;
+import net.ae97.pircboty.api.events.LagEvent;
 import net.ae97.pircboty.api.events.MessageEvent;
 import net.ae97.pircboty.api.events.ModeEvent;
 import net.ae97.pircboty.api.events.MotdEvent;
@@ -23,6 +38,7 @@ import net.ae97.pircboty.api.events.PartEvent;
 import net.ae97.pircboty.api.events.PingEvent;
 import net.ae97.pircboty.api.events.PrivateMessageEvent;
 import net.ae97.pircboty.api.events.QuitEvent;
+import net.ae97.pircboty.api.events.ReconnectEvent;
 import net.ae97.pircboty.api.events.RemoveChannelBanEvent;
 import net.ae97.pircboty.api.events.RemoveChannelKeyEvent;
 import net.ae97.pircboty.api.events.RemoveChannelLimitEvent;
@@ -62,140 +78,30 @@ import net.ae97.pircboty.generics.GenericMessageEvent;
 import net.ae97.pircboty.generics.GenericUserEvent;
 import net.ae97.pircboty.generics.GenericUserModeEvent;
 
-public abstract class ListenerAdapter implements Listener {
+public abstract class ListenerAdapter implements TypedListener {
+
+    private static final List<Class<?>> GENERIC_ORDER = ImmutableList.<Class<?>>of(GenericCTCPEvent.class, GenericUserModeEvent.class,
+            GenericChannelModeEvent.class, GenericDCCEvent.class, GenericMessageEvent.class, GenericUserEvent.class,
+            GenericChannelEvent.class, GenericChannelUserEvent.class);
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, ListenerAdapter.class, Event.class);
+    private static final Map<Class<?>, HandlerTable> HANDLER_TABLES = new ConcurrentHashMap<>();
+    private final HandlerTable handlerTable = HANDLER_TABLES.computeIfAbsent(getClass(), HandlerTable::new);
+
+    @Override
+    public Set<Class<?>> getEventTypes() {
+        return handlerTable.getEventTypes();
+    }
 
     @Override
     public void onEvent(Event event) throws Exception {
-        if (event instanceof ActionEvent) {
-            onAction((ActionEvent) event);
-        } else if (event instanceof ChannelInfoEvent) {
-            onChannelInfo((ChannelInfoEvent) event);
-        } else if (event instanceof ConnectEvent) {
-            onConnect((ConnectEvent) event);
-        } else if (event instanceof DisconnectEvent) {
-            onDisconnect((DisconnectEvent) event);
-        } else if (event instanceof FingerEvent) {
-            onFinger((FingerEvent) event);
-        } else if (event instanceof HalfOpEvent) {
-            onHalfOp((HalfOpEvent) event);
-        } else if (event instanceof IncomingChatRequestEvent) {
-            onIncomingChatRequest((IncomingChatRequestEvent) event);
-        } else if (event instanceof IncomingFileTransferEvent) {
-            onIncomingFileTransfer((IncomingFileTransferEvent) event);
-        } else if (event instanceof InviteEvent) {
-            onInvite((InviteEvent) event);
-        } else if (event instanceof JoinEvent) {
-            onJoin((JoinEvent) event);
-        } else if (event instanceof KickEvent) {
-            onKick((KickEvent) event);
-        } else if (event instanceof MessageEvent) {
-            onMessage((MessageEvent) event);
-        } else if (event instanceof ModeEvent) {
-            onMode((ModeEvent) event);
-        } else if (event instanceof MotdEvent) {
-            onMotd((MotdEvent) event);
-        } else if (event instanceof NickAlreadyInUseEvent) {
-            onNickAlreadyInUse((NickAlreadyInUseEvent) event);
-        } else if (event instanceof NickChangeEvent) {
-            onNickChange((NickChangeEvent) event);
-        } else if (event instanceof NoticeEvent) {
-            onNotice((NoticeEvent) event);
-        } else if (event instanceof OpEvent) {
-            onOp((OpEvent) event);
-        } else if (event instanceof OwnerEvent) {
-            onOwner((OwnerEvent) event);
-        } else if (event instanceof PartEvent) {
-            onPart((PartEvent) event);
-        } else if (event instanceof PingEvent) {
-            onPing((PingEvent) event);
-        } else if (event instanceof PrivateMessageEvent) {
-            onPrivateMessage((PrivateMessageEvent) event);
-        } else if (event instanceof QuitEvent) {
-            onQuit((QuitEvent) event);
-        } else if (event instanceof RemoveChannelBanEvent) {
-            onRemoveChannelBan((RemoveChannelBanEvent) event);
-        } else if (event instanceof RemoveChannelKeyEvent) {
-            onRemoveChannelKey((RemoveChannelKeyEvent) event);
-        } else if (event instanceof RemoveChannelLimitEvent) {
-            onRemoveChannelLimit((RemoveChannelLimitEvent) event);
-        } else if (event instanceof RemoveInviteOnlyEvent) {
-            onRemoveInviteOnly((RemoveInviteOnlyEvent) event);
-        } else if (event instanceof RemoveModeratedEvent) {
-            onRemoveModerated((RemoveModeratedEvent) event);
-        } else if (event instanceof RemoveNoExternalMessagesEvent) {
-            onRemoveNoExternalMessages((RemoveNoExternalMessagesEvent) event);
-        } else if (event instanceof RemovePrivateEvent) {
-            onRemovePrivate((RemovePrivateEvent) event);
-        } else if (event instanceof RemoveSecretEvent) {
-            onRemoveSecret((RemoveSecretEvent) event);
-        } else if (event instanceof RemoveTopicProtectionEvent) {
-            onRemoveTopicProtection((RemoveTopicProtectionEvent) event);
-        } else if (event instanceof ServerPingEvent) {
-            onServerPing((ServerPingEvent) event);
-        } else if (event instanceof ServerResponseEvent) {
-            onServerResponse((ServerResponseEvent) event);
-        } else if (event instanceof SetChannelBanEvent) {
-            onSetChannelBan((SetChannelBanEvent) event);
-        } else if (event instanceof SetChannelKeyEvent) {
-            onSetChannelKey((SetChannelKeyEvent) event);
-        } else if (event instanceof SetChannelLimitEvent) {
-            onSetChannelLimit((SetChannelLimitEvent) event);
-        } else if (event instanceof SetInviteOnlyEvent) {
-            onSetInviteOnly((SetInviteOnlyEvent) event);
-        } else if (event instanceof SetModeratedEvent) {
-            onSetModerated((SetModeratedEvent) event);
-        } else if (event instanceof SetNoExternalMessagesEvent) {
-            onSetNoExternalMessages((SetNoExternalMessagesEvent) event);
-        } else if (event instanceof SetPrivateEvent) {
-            onSetPrivate((SetPrivateEvent) event);
-        } else if (event instanceof SetSecretEvent) {
-            onSetSecret((SetSecretEvent) event);
-        } else if (event instanceof SetTopicProtectionEvent) {
-            onSetTopicProtection((SetTopicProtectionEvent) event);
-        } else if (event instanceof SocketConnectEvent) {
-            onSocketConnect((SocketConnectEvent) event);
-        } else if (event instanceof SuperOpEvent) {
-            onSuperOp((SuperOpEvent) event);
-        } else if (event instanceof TimeEvent) {
-            onTime((TimeEvent) event);
-        } else if (event instanceof TopicEvent) {
-            onTopic((TopicEvent) event);
-        } else if (event instanceof UnknownEvent) {
-            onUnknown((UnknownEvent) event);
-        } else if (event instanceof UserListEvent) {
-            onUserList((UserListEvent) event);
-        } else if (event instanceof UserModeEvent) {
-            onUserMode((UserModeEvent) event);
-        } else if (event instanceof VersionEvent) {
-            onVersion((VersionEvent) event);
-        } else if (event instanceof VoiceEvent) {
-            onVoice((VoiceEvent) event);
-        } else if (event instanceof WhoisEvent) {
-            onWhois((WhoisEvent) event);
-        }
-        if (event instanceof GenericCTCPEvent) {
-            onGenericCTCP((GenericCTCPEvent) event);
-        }
-        if (event instanceof GenericUserModeEvent) {
-            onGenericUserMode((GenericUserModeEvent) event);
-        }
-        if (event instanceof GenericChannelModeEvent) {
-            onGenericChannelMode((GenericChannelModeEvent) event);
-        }
-        if (event instanceof GenericDCCEvent) {
-            onGenericDCC((GenericDCCEvent) event);
-        }
-        if (event instanceof GenericMessageEvent) {
-            onGenericMessage((GenericMessageEvent) event);
-        }
-        if (event instanceof GenericUserEvent) {
-            onGenericUser((GenericUserEvent) event);
-        }
-        if (event instanceof GenericChannelEvent) {
-            onGenericChannel((GenericChannelEvent) event);
-        }
-        if (event instanceof GenericChannelUserEvent) {
-            onGenericChannelUser((GenericChannelUserEvent) event);
+        for (MethodHandle curHandler : handlerTable.getHandlers(event.getClass())) {
+            try {
+                curHandler.invokeExact(this, event);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
         }
     }
 
@@ -232,6 +138,9 @@ public abstract class ListenerAdapter implements Listener {
     public void onKick(KickEvent event) throws Exception {
     }
 
+    public void onLag(LagEvent event) throws Exception {
+    }
+
     public void onMessage(MessageEvent event) throws Exception {
     }
 
@@ -268,6 +177,9 @@ public abstract class ListenerAdapter implements Listener {
     public void onQuit(QuitEvent event) throws Exception {
     }
 
+    public void onReconnect(ReconnectEvent event) throws Exception {
+    }
+
     public void onRemoveChannelBan(RemoveChannelBanEvent event) throws Exception {
     }
 
@@ -381,4 +293,69 @@ public abstract class ListenerAdapter implements Listener {
 
     public void onGenericChannelUser(GenericChannelUserEvent event) throws Exception {
     }
+
+    private static class HandlerTable {
+
+        private static final MethodHandle[] NO_HANDLERS = new MethodHandle[0];
+        private final Map<Class<?>, MethodHandle> overridden = new LinkedHashMap<>();
+        private final Map<Class<?>, MethodHandle[]> handlers = new ConcurrentHashMap<>();
+        private final Set<Class<?>> eventTypes;
+
+        public HandlerTable(Class<?> listenerClass) {
+            boolean overridesOnEvent = false;
+            List<Method> methods = new ArrayList<>();
+            for (Class<?> curClass = listenerClass; curClass != ListenerAdapter.class; curClass = curClass.getSuperclass()) {
+                for (Method curMethod : curClass.getDeclaredMethods()) {
+                    if (curMethod.isSynthetic() || curMethod.isBridge() || Modifier.isStatic(curMethod.getModifiers())
+                            || curMethod.getParameterCount() != 1 || !curMethod.getName().startsWith("on")) {
+                        continue;
+                    }
+                    if (curMethod.getName().equals("onEvent") && curMethod.getParameterTypes()[0] == Event.class) {
+                        overridesOnEvent = true;
+                        continue;
+                    }
+                    methods.add(curMethod);
+                }
+            }
+            methods.sort((first, second) -> Integer.compare(order(first.getParameterTypes()[0]), order(second.getParameterTypes()[0])));
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (Method curMethod : methods) {
+                Class<?> parameterType = curMethod.getParameterTypes()[0];
+                if (overridden.containsKey(parameterType)) {
+                    continue;
+                }
+                try {
+                    MethodHandle handler = lookup.findVirtual(ListenerAdapter.class, curMethod.getName(), MethodType.methodType(void.class, parameterType));
+                    overridden.put(parameterType, handler.asType(HANDLER_TYPE));
+                } catch (NoSuchMethodException e) {
+                } catch (IllegalAccessException e) {
+                    throw new RuntimeException("Cannot access handler " + curMethod, e);
+                }
+            }
+            this.eventTypes = overridesOnEvent ? ImmutableSet.<Class<?>>of(Event.class) : ImmutableSet.copyOf(overridden.keySet());
+        }
+
+        private static int order(Class<?> parameterType) {
+            return parameterType.isInterface() ? GENERIC_ORDER.indexOf(parameterType) + 1 : 0;
+        }
+
+        public MethodHandle[] getHandlers(Class<?> eventClass) {
+            MethodHandle[] eventHandlers = handlers.get(eventClass);
+            if (eventHandlers == null) {
+                List<MethodHandle> matching = new ArrayList<>();
+                for (Map.Entry<Class<?>, MethodHandle> curHandler : overridden.entrySet()) {
+                    if (curHandler.getKey().isAssignableFrom(eventClass)) {
+                        matching.add(curHandler.getValue());
+                    }
+                }
+                eventHandlers = matching.isEmpty() ? NO_HANDLERS : matching.toArray(new MethodHandle[matching.size()]);
+                handlers.put(eventClass, eventHandlers);
+            }
+            return eventHandlers;
+        }
+
+        public Set<Class<?>> getEventTypes() {
+            return eventTypes;
+        }
+    }
 }
@@ -0,0 +1,8 @@
+package net.ae97.pircboty.api;
+
+import java.util.Set;
+
+public interface TypedListener extends Listener {
+
+    public Set<Class<?>> getEventTypes();
+}
@@ -30,8 +30,19 @@ public class WaitForQueue implements Closeable {
     }
 
     public Event waitFor(List<Class<? extends Event>> eventClasses, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = (timeout == Long.MAX_VALUE) ? Long.MAX_VALUE : System.nanoTime() + unit.toNanos(timeout);
         while (true) {
-            Event curEvent = eventQueue.poll(timeout, unit);
+            long remaining = (deadline == Long.MAX_VALUE) ? Long.MAX_VALUE : deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            Event curEvent = eventQueue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (curEvent == null) {
+                if (deadline == Long.MAX_VALUE) {
+                    continue;
+                }
+                return null;
+            }
             for (Class<? extends Event> curEventClass : eventClasses) {
                 if (curEventClass.isInstance(curEvent)) {
                     return curEvent;
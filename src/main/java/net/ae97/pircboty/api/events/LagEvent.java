@@ -0,0 +1,23 @@
+package net.ae97.pircboty.api.events;
+
+import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.api.Event;
+
+public class LagEvent extends Event {
+
+    private final long lag;
+
+    public LagEvent(PircBotY bot, long lag) {
+        super(bot);
+        this.lag = lag;
+    }
+
+    @Override
+    public void respond(String response) {
+        getBot().sendRaw().rawLine(response);
+    }
+
+    public long getLag() {
+        return lag;
+    }
+}
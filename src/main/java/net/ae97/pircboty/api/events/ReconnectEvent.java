@@ -0,0 +1,48 @@
+package net.ae97.pircboty.api.events;
+
+import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.ServerEntry;
+import net.ae97.pircboty.api.Event;
+
+public class ReconnectEvent extends Event {
+
+    private final int attempt;
+    private final ServerEntry server;
+    private final boolean success;
+    private final long disconnectedTime;
+    private final Exception reconnectException;
+
+    public ReconnectEvent(PircBotY bot, int attempt, ServerEntry server, boolean success, long disconnectedTime, Exception reconnectException) {
+        super(bot);
+        this.attempt = attempt;
+        this.server = server;
+        this.success = success;
+        this.disconnectedTime = disconnectedTime;
+        this.reconnectException = reconnectException;
+    }
+
+    @Override
+    public void respond(String response) {
+        getBot().sendRaw().rawLine(response);
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public ServerEntry getServer() {
+        return server;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getDisconnectedTime() {
+        return disconnectedTime;
+    }
+
+    public Exception getReconnectException() {
+        return reconnectException;
+    }
+}
@@ -0,0 +1,25 @@
+package net.ae97.pircboty.exception;
+
+import org.apache.commons.lang3.Validate;
+
+public class RequestFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 88120L;
+    private final String target;
+    private final int code;
+
+    public RequestFailedException(String target, int code, String detail) {
+        super("Request for " + target + " failed with " + code + ": " + detail);
+        Validate.notNull(target, "Target cannot be null");
+        this.target = target;
+        this.code = code;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
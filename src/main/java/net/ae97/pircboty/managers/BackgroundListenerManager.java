@@ -36,6 +36,11 @@ public class BackgroundListenerManager extends ThreadedListenerManager {
         }
     }
 
+    @Override
+    public boolean hasSubscribers(Class<? extends Event> eventClass) {
+        return !backgroundListeners.isEmpty() || super.hasSubscribers(eventClass);
+    }
+
     @Override
     public ImmutableSet<Listener> getListeners() {
         HashSet<Listener> set = new HashSet<>();
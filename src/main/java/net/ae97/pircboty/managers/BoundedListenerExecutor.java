@@ -0,0 +1,189 @@
+package net.ae97.pircboty.managers;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.api.events.ServerResponseEvent;
+import net.ae97.pircboty.api.events.UnknownEvent;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class BoundedListenerExecutor extends ThreadPoolExecutor {
+
+    private static final AtomicInteger EXECUTOR_COUNT = new AtomicInteger();
+    private static final Set<Class<?>> DEFAULT_LOW_PRIORITY = ImmutableSet.<Class<?>>of(UnknownEvent.class, ServerResponseEvent.class);
+    private final OverloadPolicy policy;
+    private final Set<Class<?>> lowPriorityEvents;
+    private final ThreadLocal<Boolean> workerThread = new ThreadLocal<>();
+    private final AtomicLong blockedCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+
+    public BoundedListenerExecutor(int threads, int queueCapacity, OverloadPolicy policy) {
+        this(threads, queueCapacity, policy, DEFAULT_LOW_PRIORITY);
+    }
+
+    public BoundedListenerExecutor(int threads, int queueCapacity, OverloadPolicy policy, Set<Class<?>> lowPriorityEvents) {
+        super(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new BasicThreadFactory.Builder()
+                .namingPattern("boundedListenerPool" + EXECUTOR_COUNT.getAndIncrement() + "-thread%d")
+                .daemon(true)
+                .build());
+        Validate.notNull(policy, "Overload policy cannot be null");
+        Validate.notNull(lowPriorityEvents, "Low priority events cannot be null");
+        this.policy = policy;
+        this.lowPriorityEvents = ImmutableSet.copyOf(lowPriorityEvents);
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler(new OverloadHandler());
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        workerThread.set(Boolean.TRUE);
+        super.beforeExecute(thread, runnable);
+    }
+
+    protected boolean isLowPriority(Runnable runnable) {
+        if (!(runnable instanceof ListenerTask) || ((ListenerTask) runnable).getEvent() == null) {
+            return false;
+        }
+        Class<?> eventClass = ((ListenerTask) runnable).getEvent().getClass();
+        for (Class<?> curClass : lowPriorityEvents) {
+            if (curClass.isAssignableFrom(eventClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void discard(Runnable runnable, AtomicLong counter) {
+        counter.incrementAndGet();
+        if (runnable instanceof Future) {
+            ((Future<?>) runnable).cancel(false);
+        }
+        if (runnable instanceof ListenerTask) {
+            ListenerTask task = (ListenerTask) runnable;
+            PircBotY.getLogger().log(Level.FINE, "Listener pool overloaded, discarding event " + task.getEvent() + " for listener " + task.getListener());
+        } else {
+            PircBotY.getLogger().log(Level.FINE, "Listener pool overloaded, discarding task " + runnable);
+        }
+    }
+
+    protected void block(Runnable runnable) {
+        if (Boolean.TRUE.equals(workerThread.get())) {
+            callerRunsCount.incrementAndGet();
+            runnable.run();
+            return;
+        }
+        blockedCount.incrementAndGet();
+        try {
+            getQueue().put(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for listener pool capacity", e);
+        }
+        if (isShutdown() && getQueue().remove(runnable)) {
+            throw new RejectedExecutionException("Listener pool has been shutdown");
+        }
+    }
+
+    public OverloadPolicy getPolicy() {
+        return policy;
+    }
+
+    public Set<Class<?>> getLowPriorityEvents() {
+        return lowPriorityEvents;
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return getQueue().size() + getQueue().remainingCapacity();
+    }
+
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getShedCount() {
+        return shedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return blockedCount.get() + callerRunsCount.get() + droppedCount.get() + shedCount.get();
+    }
+
+    public enum OverloadPolicy {
+
+        BLOCK,
+        CALLER_RUNS,
+        DROP_NEWEST,
+        SHED_LOW_PRIORITY
+    }
+
+    private class OverloadHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Listener pool has been shutdown");
+            }
+            switch (policy) {
+                case BLOCK:
+                    block(runnable);
+                    break;
+                case CALLER_RUNS:
+                    callerRunsCount.incrementAndGet();
+                    runnable.run();
+                    break;
+                case DROP_NEWEST:
+                    if (runnable instanceof ListenerTask) {
+                        discard(runnable, droppedCount);
+                    } else {
+                        block(runnable);
+                    }
+                    break;
+                case SHED_LOW_PRIORITY:
+                    if (isLowPriority(runnable)) {
+                        discard(runnable, shedCount);
+                        break;
+                    }
+                    BlockingQueue<Runnable> queue = executor.getQueue();
+                    for (Runnable curQueued : queue) {
+                        if (isLowPriority(curQueued) && queue.remove(curQueued)) {
+                            discard(curQueued, shedCount);
+                            if (queue.offer(runnable)) {
+                                return;
+                            }
+                            break;
+                        }
+                    }
+                    block(runnable);
+                    break;
+                default:
+                    throw new RejectedExecutionException("Unknown overload policy " + policy);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package net.ae97.pircboty.managers;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import net.ae97.pircboty.PircBotY;
+import org.apache.commons.lang3.Validate;
+
+public class KeyedExecutor {
+
+    private final Executor delegate;
+    private final Map<Object, Lane> lanes = new ConcurrentHashMap<>();
+    private final ThreadLocal<Lane> runningLane = new ThreadLocal<>();
+    private final ThreadLocal<Lane> rerunLane = new ThreadLocal<>();
+
+    public KeyedExecutor(Executor delegate) {
+        Validate.notNull(delegate, "Delegate executor cannot be null");
+        this.delegate = delegate;
+    }
+
+    public void execute(Object key, Runnable task) {
+        Validate.notNull(key, "Key cannot be null");
+        Validate.notNull(task, "Task cannot be null");
+        boolean[] created = new boolean[1];
+        Lane lane = lanes.compute(key, (curKey, curLane) -> {
+            if (curLane == null) {
+                curLane = new Lane(curKey);
+                created[0] = true;
+            }
+            curLane.tasks.add(task);
+            curLane.pending++;
+            return curLane;
+        });
+        if (!created[0]) {
+            return;
+        }
+        try {
+            delegate.execute(lane);
+        } catch (RejectedExecutionException e) {
+            lane.abandon();
+            throw e;
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.size();
+    }
+
+    public int getQueuedTasks(Object key) {
+        Lane lane = lanes.get(key);
+        return (lane == null) ? 0 : lane.tasks.size();
+    }
+
+    private class Lane implements Runnable {
+
+        private final Object key;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private int pending = 0;
+
+        public Lane(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            if (runningLane.get() == this) {
+                rerunLane.set(this);
+                return;
+            }
+            Lane previous = runningLane.get();
+            runningLane.set(this);
+            try {
+                do {
+                    try {
+                        tasks.poll().run();
+                    } catch (RuntimeException e) {
+                        PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when running task for lane " + key, e);
+                    }
+                } while (release());
+            } finally {
+                runningLane.set(previous);
+            }
+        }
+
+        private boolean release() {
+            if (lanes.computeIfPresent(key, (curKey, curLane) -> (curLane == this && --curLane.pending == 0) ? null : curLane) != this) {
+                return false;
+            }
+            rerunLane.remove();
+            try {
+                delegate.execute(this);
+            } catch (RejectedExecutionException e) {
+                abandon();
+                throw e;
+            }
+            if (rerunLane.get() == this) {
+                rerunLane.remove();
+                return true;
+            }
+            return false;
+        }
+
+        private void abandon() {
+            lanes.computeIfPresent(key, (curKey, curLane) -> {
+                if (curLane != this) {
+                    return curLane;
+                }
+                for (Runnable curTask = tasks.poll(); curTask != null; curTask = tasks.poll()) {
+                    if (curTask instanceof Future) {
+                        ((Future<?>) curTask).cancel(false);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+}
@@ -17,6 +17,10 @@ public interface ListenerManager {
 
     public Set<Listener> getListeners();
 
+    public default boolean hasSubscribers(Class<? extends Event> eventClass) {
+        return true;
+    }
+
     public void setCurrentId(long currentId);
 
     public long getCurrentId();
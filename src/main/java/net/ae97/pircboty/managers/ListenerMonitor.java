@@ -0,0 +1,269 @@
+package net.ae97.pircboty.managers;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.api.Listener;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class ListenerMonitor {
+
+    private static final int QUARANTINE_THREADS = 4;
+    private static final int QUARANTINE_QUEUE_CAPACITY = 1024;
+    private static final int QUARANTINE_BACKLOG = 256;
+    private static final long DROP_WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+    private final int managerNumber;
+    private final Map<Listener, ListenerStats> listenerStats = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ListenerStats> eventTypeStats = new ConcurrentHashMap<>();
+    private final Set<Listener> quarantined = ConcurrentHashMap.newKeySet();
+    private final Map<Object, ObjectName> registeredBeans = new ConcurrentHashMap<>();
+    private volatile boolean jmxEnabled = false;
+    private volatile boolean quarantineSlowListeners = false;
+    private long slowListenerBudget = 0;
+    private ScheduledExecutorService watchdog;
+    private ScheduledFuture<?> watchdogFuture;
+    private BoundedListenerExecutor quarantinePool;
+    private KeyedExecutor quarantineLanes;
+
+    public ListenerMonitor(int managerNumber) {
+        this.managerNumber = managerNumber;
+    }
+
+    public ListenerStats getStats(Listener listener) {
+        ListenerStats stats = listenerStats.get(listener);
+        if (stats != null) {
+            return stats;
+        }
+        stats = listenerStats.computeIfAbsent(listener, curListener -> new ListenerStats(getName(curListener)));
+        if (jmxEnabled) {
+            register(listener, "Listener", stats);
+        }
+        return stats;
+    }
+
+    public ListenerStats getStats(Class<?> eventClass) {
+        ListenerStats stats = eventTypeStats.get(eventClass);
+        if (stats != null) {
+            return stats;
+        }
+        stats = eventTypeStats.computeIfAbsent(eventClass, curClass -> new ListenerStats(curClass.getName()));
+        if (jmxEnabled) {
+            register(eventClass, "EventType", stats);
+        }
+        return stats;
+    }
+
+    public Map<Listener, ListenerStats> getListenerStats() {
+        return ImmutableMap.copyOf(listenerStats);
+    }
+
+    public Map<Class<?>, ListenerStats> getEventTypeStats() {
+        return ImmutableMap.copyOf(eventTypeStats);
+    }
+
+    protected long begin(Listener listener, Class<?> eventClass, long submitTime) {
+        long startTime = System.nanoTime();
+        getStats(listener).begin(startTime - submitTime, startTime);
+        getStats(eventClass).begin(startTime - submitTime, startTime);
+        return startTime;
+    }
+
+    protected void end(Listener listener, Class<?> eventClass, long startTime, boolean error) {
+        long execution = System.nanoTime() - startTime;
+        ListenerStats eventStats = eventTypeStats.get(eventClass);
+        if (eventStats != null) {
+            eventStats.end(execution, error);
+        }
+        ListenerStats stats = listenerStats.get(listener);
+        if (stats == null) {
+            return;
+        }
+        stats.end(execution, error);
+        long budget = slowListenerBudget;
+        if (budget > 0 && TimeUnit.NANOSECONDS.toMillis(execution) > budget) {
+            stats.recordSlow();
+        }
+    }
+
+    public void remove(Listener listener) {
+        listenerStats.remove(listener);
+        quarantined.remove(listener);
+        unregister(listener);
+    }
+
+    public synchronized void setSlowListenerBudget(long slowListenerBudget) {
+        Validate.isTrue(slowListenerBudget >= 0, "Slow listener budget cannot be negative");
+        this.slowListenerBudget = slowListenerBudget;
+        if (watchdogFuture != null) {
+            watchdogFuture.cancel(false);
+            watchdogFuture = null;
+        }
+        if (slowListenerBudget == 0) {
+            return;
+        }
+        if (watchdog == null) {
+            watchdog = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern("listenerPool" + managerNumber + "-watchdog")
+                    .daemon(true)
+                    .build());
+        }
+        long interval = Math.max(slowListenerBudget / 2, 1);
+        watchdogFuture = watchdog.scheduleWithFixedDelay(this::checkSlowListeners, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized long getSlowListenerBudget() {
+        return slowListenerBudget;
+    }
+
+    public void setQuarantineSlowListeners(boolean quarantineSlowListeners) {
+        this.quarantineSlowListeners = quarantineSlowListeners;
+    }
+
+    public boolean isQuarantineSlowListeners() {
+        return quarantineSlowListeners;
+    }
+
+    protected void checkSlowListeners() {
+        long now = System.nanoTime();
+        long budget = getSlowListenerBudget();
+        for (Map.Entry<Listener, ListenerStats> curEntry : listenerStats.entrySet()) {
+            for (Map.Entry<Thread, Long> curRunning : curEntry.getValue().getRunning().entrySet()) {
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(now - curRunning.getValue());
+                if (elapsed <= budget || !curEntry.getValue().flag(curRunning.getKey(), curRunning.getValue())) {
+                    continue;
+                }
+                Throwable trace = new Throwable("Listener thread " + curRunning.getKey().getName());
+                trace.setStackTrace(curRunning.getKey().getStackTrace());
+                PircBotY.getLogger().log(Level.WARNING, "Listener " + curEntry.getValue().getName() + " has been running for " + elapsed
+                        + "ms, over its budget of " + budget + "ms", trace);
+                if (quarantineSlowListeners) {
+                    quarantine(curEntry.getKey());
+                }
+            }
+        }
+    }
+
+    public void quarantine(Listener listener) {
+        if (quarantined.add(listener)) {
+            getStats(listener).setQuarantined(true);
+            PircBotY.getLogger().log(Level.WARNING, "Moving listener " + getName(listener) + " to the quarantine pool");
+        }
+    }
+
+    public void release(Listener listener) {
+        if (quarantined.remove(listener)) {
+            getStats(listener).setQuarantined(false);
+            PircBotY.getLogger().log(Level.INFO, "Released listener " + getName(listener) + " from the quarantine pool");
+        }
+    }
+
+    public boolean isQuarantined(Listener listener) {
+        return quarantined.contains(listener);
+    }
+
+    public Set<Listener> getQuarantinedListeners() {
+        return ImmutableSet.copyOf(quarantined);
+    }
+
+    public synchronized ExecutorService getQuarantinePool() {
+        if (quarantinePool == null) {
+            quarantinePool = new BoundedListenerExecutor(QUARANTINE_THREADS, QUARANTINE_QUEUE_CAPACITY, BoundedListenerExecutor.OverloadPolicy.BLOCK);
+            quarantineLanes = new KeyedExecutor(quarantinePool);
+        }
+        return quarantinePool;
+    }
+
+    protected synchronized KeyedExecutor getQuarantineLanes() {
+        getQuarantinePool();
+        return quarantineLanes;
+    }
+
+    public void executeQuarantined(Listener listener, Runnable task) {
+        KeyedExecutor lanes = getQuarantineLanes();
+        if (lanes.getQueuedTasks(listener) >= QUARANTINE_BACKLOG) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+            ListenerStats stats = getStats(listener);
+            long dropped = stats.recordDropped();
+            if (stats.shouldWarnDropped(System.nanoTime(), DROP_WARNING_INTERVAL)) {
+                PircBotY.getLogger().log(Level.WARNING, "Quarantine backlog of listener " + getName(listener) + " is full, " + dropped + " events dropped so far");
+            }
+            return;
+        }
+        lanes.execute(listener, task);
+    }
+
+    public void enableJmx() {
+        jmxEnabled = true;
+        for (Map.Entry<Listener, ListenerStats> curEntry : listenerStats.entrySet()) {
+            register(curEntry.getKey(), "Listener", curEntry.getValue());
+        }
+        for (Map.Entry<Class<?>, ListenerStats> curEntry : eventTypeStats.entrySet()) {
+            register(curEntry.getKey(), "EventType", curEntry.getValue());
+        }
+    }
+
+    public void disableJmx() {
+        jmxEnabled = false;
+        for (Object curKey : registeredBeans.keySet()) {
+            unregister(curKey);
+        }
+    }
+
+    protected void register(Object key, String type, ListenerStats stats) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName("net.ae97.pircboty:type=" + type + ",manager=" + managerNumber + ",name=" + ObjectName.quote(stats.getName()));
+            if (registeredBeans.putIfAbsent(key, name) == null) {
+                server.registerMBean(stats, name);
+            }
+        } catch (JMException e) {
+            registeredBeans.remove(key);
+            PircBotY.getLogger().log(Level.WARNING, "Could not register JMX bean for " + stats.getName(), e);
+        }
+    }
+
+    protected void unregister(Object key) {
+        ObjectName name = registeredBeans.remove(key);
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            PircBotY.getLogger().log(Level.FINE, "Could not unregister JMX bean " + name, e);
+        }
+    }
+
+    public synchronized void shutdown() {
+        disableJmx();
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+            watchdog = null;
+            watchdogFuture = null;
+        }
+        if (quarantinePool != null) {
+            quarantinePool.shutdown();
+        }
+    }
+
+    private static String getName(Listener listener) {
+        return listener.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(listener));
+    }
+}
@@ -0,0 +1,157 @@
+package net.ae97.pircboty.managers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class ListenerStats implements ListenerStatsMXBean {
+
+    private static final long[] HISTOGRAM_BOUNDS = {1, 5, 10, 50, 100, 500, 1000, 5000, Long.MAX_VALUE};
+    private final String name;
+    private final AtomicLong invocations = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong slowInvocations = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong lastDropWarning = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong totalQueueWait = new AtomicLong();
+    private final AtomicLong totalExecution = new AtomicLong();
+    private final AtomicLong maxExecution = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BOUNDS.length);
+    private final Map<Thread, Long> running = new ConcurrentHashMap<>();
+    private final Map<Thread, Long> flagged = new ConcurrentHashMap<>();
+    private volatile boolean quarantined = false;
+
+    public ListenerStats(String name) {
+        this.name = name;
+    }
+
+    protected void begin(long queueWait, long startTime) {
+        inFlight.incrementAndGet();
+        totalQueueWait.addAndGet(queueWait);
+        running.put(Thread.currentThread(), startTime);
+    }
+
+    protected void end(long execution, boolean error) {
+        running.remove(Thread.currentThread());
+        flagged.remove(Thread.currentThread());
+        inFlight.decrementAndGet();
+        invocations.incrementAndGet();
+        if (error) {
+            errors.incrementAndGet();
+        }
+        totalExecution.addAndGet(execution);
+        long curMax = maxExecution.get();
+        while (execution > curMax && !maxExecution.compareAndSet(curMax, execution)) {
+            curMax = maxExecution.get();
+        }
+        long executionMillis = TimeUnit.NANOSECONDS.toMillis(execution);
+        for (int i = 0; i < HISTOGRAM_BOUNDS.length; i++) {
+            if (executionMillis < HISTOGRAM_BOUNDS[i]) {
+                histogram.incrementAndGet(i);
+                break;
+            }
+        }
+    }
+
+    protected void recordSlow() {
+        slowInvocations.incrementAndGet();
+    }
+
+    protected long recordDropped() {
+        return dropped.incrementAndGet();
+    }
+
+    protected boolean shouldWarnDropped(long now, long interval) {
+        long last = lastDropWarning.get();
+        return (last == 0 || now - last >= interval) && lastDropWarning.compareAndSet(last, now);
+    }
+
+    protected boolean flag(Thread thread, long startTime) {
+        Long previous = flagged.put(thread, startTime);
+        return previous == null || previous != startTime;
+    }
+
+    protected Map<Thread, Long> getRunning() {
+        return running;
+    }
+
+    protected void setQuarantined(boolean quarantined) {
+        this.quarantined = quarantined;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getInvocations() {
+        return invocations.get();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public long getSlowInvocations() {
+        return slowInvocations.get();
+    }
+
+    @Override
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public double getMeanQueueWaitMillis() {
+        long started = invocations.get() + inFlight.get();
+        return (started == 0) ? 0 : totalQueueWait.get() / 1000000.0 / started;
+    }
+
+    @Override
+    public double getMeanExecutionMillis() {
+        long completed = invocations.get();
+        return (completed == 0) ? 0 : totalExecution.get() / 1000000.0 / completed;
+    }
+
+    @Override
+    public double getMaxExecutionMillis() {
+        return maxExecution.get() / 1000000.0;
+    }
+
+    @Override
+    public long[] getHistogramBoundsMillis() {
+        return HISTOGRAM_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getHistogram() {
+        long[] counts = new long[histogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public boolean isQuarantined() {
+        return quarantined;
+    }
+
+    @Override
+    public String toString() {
+        return name + "[invocations=" + getInvocations() + ", errors=" + getErrors() + ", dropped=" + getDropped() + ", inFlight=" + getInFlight()
+                + ", meanExecution=" + getMeanExecutionMillis() + "ms, maxExecution=" + getMaxExecutionMillis() + "ms]";
+    }
+}
@@ -0,0 +1,28 @@
+package net.ae97.pircboty.managers;
+
+public interface ListenerStatsMXBean {
+
+    public String getName();
+
+    public long getInvocations();
+
+    public long getErrors();
+
+    public long getSlowInvocations();
+
+    public long getDropped();
+
+    public int getInFlight();
+
+    public double getMeanQueueWaitMillis();
+
+    public double getMeanExecutionMillis();
+
+    public double getMaxExecutionMillis();
+
+    public long[] getHistogramBoundsMillis();
+
+    public long[] getHistogram();
+
+    public boolean isQuarantined();
+}
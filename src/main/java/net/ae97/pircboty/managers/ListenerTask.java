@@ -0,0 +1,11 @@
+package net.ae97.pircboty.managers;
+
+import net.ae97.pircboty.api.Event;
+import net.ae97.pircboty.api.Listener;
+
+public interface ListenerTask {
+
+    public Listener getListener();
+
+    public Event getEvent();
+}
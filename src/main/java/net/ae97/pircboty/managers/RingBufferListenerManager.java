@@ -0,0 +1,476 @@
+package net.ae97.pircboty.managers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.api.Event;
+import net.ae97.pircboty.api.Listener;
+import net.ae97.pircboty.api.TypedListener;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class RingBufferListenerManager implements ListenerManager {
+
+    private static final AtomicInteger MANAGER_COUNT = new AtomicInteger();
+    private static final int SPIN_TRIES = 100;
+    private static final long BLOCKING_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(10);
+    private final int managerNumber;
+    private final int bufferSize;
+    private final int mask;
+    private final Event[] entries;
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong released = new AtomicLong(-1);
+    private final ReentrantLock releaseLock = new ReentrantLock();
+    private final AtomicLong currentId = new AtomicLong();
+    private final WaitStrategy waitStrategy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private final Stage defaultStage;
+    private final ThreadFactory threadFactory;
+    private volatile Map<Class<?>, Boolean> subscribers = new ConcurrentHashMap<>();
+    private volatile boolean started = false;
+    private volatile boolean running = true;
+
+    public RingBufferListenerManager() {
+        this(1024, WaitStrategy.BLOCKING);
+    }
+
+    public RingBufferListenerManager(int bufferSize, WaitStrategy waitStrategy) {
+        Validate.isTrue(bufferSize > 0 && Integer.bitCount(bufferSize) == 1, "Buffer size must be a power of 2");
+        Validate.notNull(waitStrategy, "Wait strategy cannot be null");
+        this.managerNumber = MANAGER_COUNT.getAndIncrement();
+        this.bufferSize = bufferSize;
+        this.mask = bufferSize - 1;
+        this.entries = new Event[bufferSize];
+        this.published = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+        this.threadFactory = new BasicThreadFactory.Builder()
+                .namingPattern("ringBuffer" + managerNumber + "-stage%d")
+                .daemon(true)
+                .build();
+        this.defaultStage = addStage("default");
+    }
+
+    public synchronized Stage addStage(String name, Stage... dependencies) {
+        Validate.notBlank(name, "Name cannot be blank");
+        Validate.validState(!started, "Cannot add stages after the ring buffer has started");
+        for (Stage curDependency : dependencies) {
+            Validate.isTrue(stages.contains(curDependency), "Dependency %s does not belong to this manager", curDependency);
+        }
+        Stage stage = new Stage(name, ImmutableList.copyOf(dependencies));
+        stages.add(stage);
+        return stage;
+    }
+
+    public Stage getDefaultStage() {
+        return defaultStage;
+    }
+
+    public List<Stage> getStages() {
+        return ImmutableList.copyOf(stages);
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        for (Stage curStage : stages) {
+            for (Stage curDependency : curStage.dependencies) {
+                curDependency.hasDependents = true;
+            }
+        }
+        for (Stage curStage : stages) {
+            Thread thread = threadFactory.newThread(curStage);
+            curStage.thread = thread;
+            thread.start();
+        }
+    }
+
+    @Override
+    public void dispatchEvent(Event event) {
+        if (!started) {
+            start();
+        }
+        long sequence;
+        Stage current = getCurrentStage();
+        if (current != null) {
+            while (true) {
+                sequence = cursor.get() + 1;
+                long wrapPoint = sequence - bufferSize;
+                if (wrapPoint <= release()) {
+                    if (cursor.compareAndSet(sequence - 1, sequence)) {
+                        break;
+                    }
+                    continue;
+                }
+                Validate.validState(current.sequence.get() >= wrapPoint,
+                        "Ring buffer is full and %s cannot dispatch %s without waiting on itself; increase the buffer size or dispatch from another thread", current, event);
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(1000);
+            }
+        } else {
+            sequence = cursor.incrementAndGet();
+            long wrapPoint = sequence - bufferSize;
+            while (wrapPoint > release()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(1000);
+            }
+        }
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        published.lazySet(index, sequence);
+        signal();
+    }
+
+    protected long release() {
+        if (releaseLock.tryLock()) {
+            try {
+                long minimum = getMinimumSequence(stages);
+                long from = released.get();
+                if (minimum > from) {
+                    for (long curSequence = Math.max(from + 1, minimum - bufferSize + 1); curSequence <= minimum; curSequence++) {
+                        entries[(int) curSequence & mask] = null;
+                    }
+                    released.set(minimum);
+                }
+            } finally {
+                releaseLock.unlock();
+            }
+        }
+        return released.get();
+    }
+
+    protected Stage getCurrentStage() {
+        Thread currentThread = Thread.currentThread();
+        for (Stage curStage : stages) {
+            if (curStage.thread == currentThread) {
+                return curStage;
+            }
+        }
+        return null;
+    }
+
+    protected static boolean dependsOn(Stage stage, Stage dependency) {
+        if (stage == dependency) {
+            return true;
+        }
+        for (Stage curDependency : stage.dependencies) {
+            if (dependsOn(curDependency, dependency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected long getMinimumSequence(List<Stage> gatingStages) {
+        long minimum = Long.MAX_VALUE;
+        for (Stage curStage : gatingStages) {
+            minimum = Math.min(minimum, curStage.sequence.get());
+        }
+        return minimum;
+    }
+
+    protected long getHighestPublished(long next) {
+        long sequence = next;
+        while (published.get((int) sequence & mask) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    protected void signal() {
+        if (waitStrategy != WaitStrategy.BLOCKING) {
+            return;
+        }
+        lock.lock();
+        try {
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected long waitFor(Stage stage, long next) throws InterruptedException {
+        int tries = 0;
+        while (running) {
+            long available = stage.dependencies.isEmpty() ? getHighestPublished(next) : getMinimumSequence(stage.dependencies);
+            if (available >= next) {
+                return available;
+            }
+            switch (waitStrategy) {
+                case BUSY_SPIN:
+                    break;
+                case YIELDING:
+                    if (++tries > SPIN_TRIES) {
+                        Thread.yield();
+                    }
+                    break;
+                case BLOCKING:
+                    lock.lock();
+                    try {
+                        available = stage.dependencies.isEmpty() ? getHighestPublished(next) : getMinimumSequence(stage.dependencies);
+                        if (available < next && running) {
+                            advanced.awaitNanos(BLOCKING_TIMEOUT);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    break;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean addListener(Listener listener) {
+        return addListener(listener, defaultStage);
+    }
+
+    public boolean addListener(Listener listener, Stage stage) {
+        Validate.notNull(listener, "Listener cannot be null");
+        Validate.isTrue(stages.contains(stage), "Stage %s does not belong to this manager", stage);
+        Stage current = getCurrentStage();
+        Validate.validState(current == null || !dependsOn(stage, current),
+                "Cannot add a listener to %s from %s, which it would have to wait for; blocking listeners such as WaitForQueue are not supported by the ring buffer", stage, current);
+        if (!stage.listeners.addIfAbsent(listener)) {
+            return false;
+        }
+        stage.routes = new ConcurrentHashMap<>();
+        subscribers = new ConcurrentHashMap<>();
+        return true;
+    }
+
+    @Override
+    public boolean removeListener(Listener listener) {
+        boolean removed = false;
+        for (Stage curStage : stages) {
+            if (curStage.listeners.remove(listener)) {
+                curStage.routes = new ConcurrentHashMap<>();
+                removed = true;
+            }
+        }
+        subscribers = new ConcurrentHashMap<>();
+        return removed;
+    }
+
+    @Override
+    public boolean listenerExists(Listener listener) {
+        return getListeners().contains(listener);
+    }
+
+    @Override
+    public Set<Listener> getListeners() {
+        ImmutableSet.Builder<Listener> builder = ImmutableSet.builder();
+        for (Stage curStage : stages) {
+            builder.addAll(curStage.listeners);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean hasSubscribers(Class<? extends Event> eventClass) {
+        return subscribers.computeIfAbsent(eventClass, curClass -> {
+            for (Stage curStage : stages) {
+                if (curStage.getRoute(curClass).length > 0) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    protected static boolean isSubscribed(Listener listener, Class<?> eventClass) {
+        if (!(listener instanceof TypedListener)) {
+            return true;
+        }
+        for (Class<?> curType : ((TypedListener) listener).getEventTypes()) {
+            if (curType.isAssignableFrom(eventClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void setCurrentId(long currentId) {
+        this.currentId.set(currentId);
+    }
+
+    @Override
+    public long getCurrentId() {
+        return currentId.get();
+    }
+
+    @Override
+    public long incrementCurrentId() {
+        return currentId.getAndIncrement();
+    }
+
+    @Override
+    public void shutdown(PircBotY bot) {
+        long target = cursor.get();
+        if (getCurrentStage() != null) {
+            return;
+        }
+        while (running && started && getMinimumSequence(stages) < target) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        lock.lock();
+        try {
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getRemainingCapacity() {
+        return bufferSize - (cursor.get() - getMinimumSequence(stages));
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public int getManagerNumber() {
+        return managerNumber;
+    }
+
+    public enum WaitStrategy {
+
+        BUSY_SPIN,
+        YIELDING,
+        BLOCKING
+    }
+
+    public class Stage implements Runnable {
+
+        private final String name;
+        private final List<Stage> dependencies;
+        private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+        private volatile Map<Class<?>, Listener[]> routes = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private volatile Thread thread;
+        private boolean hasDependents = false;
+
+        protected Stage(String name, List<Stage> dependencies) {
+            this.name = name;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            try {
+                while (running) {
+                    long available = waitFor(this, next);
+                    if (available < 0) {
+                        return;
+                    }
+                    for (long curSequence = next; curSequence <= available; curSequence++) {
+                        process(entries[(int) curSequence & mask]);
+                    }
+                    processed.addAndGet(available - next + 1);
+                    batches.incrementAndGet();
+                    sequence.set(available);
+                    next = available + 1;
+                    release();
+                    if (hasDependents) {
+                        signal();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        protected void process(Event event) {
+            for (Listener curListener : getRoute(event.getClass())) {
+                try {
+                    curListener.onEvent(event);
+                } catch (Exception e) {
+                    PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when executing event " + event + " on listener " + curListener, e);
+                }
+            }
+        }
+
+        protected Listener[] getRoute(Class<?> eventClass) {
+            Map<Class<?>, Listener[]> routesLocal = routes;
+            Listener[] route = routesLocal.get(eventClass);
+            if (route == null) {
+                List<Listener> matching = new ArrayList<>();
+                for (Listener curListener : listeners) {
+                    if (isSubscribed(curListener, eventClass)) {
+                        matching.add(curListener);
+                    }
+                }
+                route = matching.toArray(new Listener[matching.size()]);
+                routesLocal.put(eventClass, route);
+            }
+            return route;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Stage> getDependencies() {
+            return dependencies;
+        }
+
+        public List<Listener> getListeners() {
+            return ImmutableList.copyOf(listeners);
+        }
+
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        public long getProcessed() {
+            return processed.get();
+        }
+
+        public long getBatches() {
+            return batches.get();
+        }
+
+        @Override
+        public String toString() {
+            return "Stage " + name;
+        }
+    }
+}
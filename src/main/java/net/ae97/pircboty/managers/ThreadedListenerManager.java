@@ -1,22 +1,30 @@
 package net.ae97.pircboty.managers;
 
-import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import net.ae97.pircboty.PircBotY;
 import net.ae97.pircboty.api.Event;
 import net.ae97.pircboty.api.Listener;
+import net.ae97.pircboty.api.TypedListener;
+import net.ae97.pircboty.generics.GenericChannelEvent;
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 
 public class ThreadedListenerManager implements ListenerManager {
@@ -24,11 +32,21 @@ public class ThreadedListenerManager implements ListenerManager {
     private static final AtomicInteger MANAGER_COUNT = new AtomicInteger();
     private final int managerNumber;
     private final ExecutorService pool;
+    private final Ordering ordering;
+    private final KeyedExecutor lanes;
+    private final ListenerMonitor monitor;
     private final Set<Listener> listeners = Collections.synchronizedSet(new HashSet<Listener>());
     private final AtomicLong currentId = new AtomicLong();
-    private final Multimap<PircBotY, ManagedFutureTask> runningListeners = MultimapBuilder.hashKeys().linkedListValues().build();
+    private volatile Map<Class<?>, List<Listener>> routes = new ConcurrentHashMap<>();
+    private final Map<PircBotY, InFlight> runningListeners = new ConcurrentHashMap<>();
+    private volatile long shutdownTimeout = 0;
 
     public ThreadedListenerManager() {
+        this(Ordering.UNORDERED);
+    }
+
+    public ThreadedListenerManager(Ordering ordering) {
+        Validate.notNull(ordering, "Ordering cannot be null");
         managerNumber = MANAGER_COUNT.getAndIncrement();
         BasicThreadFactory factory = new BasicThreadFactory.Builder()
                 .namingPattern("listenerPool" + managerNumber + "-thread%d")
@@ -37,24 +55,50 @@ public class ThreadedListenerManager implements ListenerManager {
         ThreadPoolExecutor defaultPool = (ThreadPoolExecutor) Executors.newCachedThreadPool(factory);
         defaultPool.allowCoreThreadTimeOut(true);
         this.pool = defaultPool;
+        this.ordering = ordering;
+        this.lanes = new KeyedExecutor(pool);
+        this.monitor = new ListenerMonitor(managerNumber);
     }
 
     public ThreadedListenerManager(ExecutorService pool) {
+        this(pool, Ordering.UNORDERED);
+    }
+
+    public ThreadedListenerManager(ExecutorService pool, Ordering ordering) {
+        Validate.notNull(pool, "Pool cannot be null");
+        Validate.notNull(ordering, "Ordering cannot be null");
+        if (ordering != Ordering.UNORDERED && pool instanceof BoundedListenerExecutor) {
+            BoundedListenerExecutor.OverloadPolicy policy = ((BoundedListenerExecutor) pool).getPolicy();
+            Validate.isTrue(policy != BoundedListenerExecutor.OverloadPolicy.DROP_NEWEST && policy != BoundedListenerExecutor.OverloadPolicy.SHED_LOW_PRIORITY,
+                    "Ordering %s cannot be combined with the %s overload policy, ordered lanes can only be blocked or run by the caller", ordering, policy);
+        }
         managerNumber = MANAGER_COUNT.getAndIncrement();
         this.pool = pool;
+        this.ordering = ordering;
+        this.lanes = new KeyedExecutor(pool);
+        this.monitor = new ListenerMonitor(managerNumber);
     }
 
     @Override
     public boolean addListener(Listener listener) {
         synchronized (listeners) {
-            return listeners.add(listener);
+            if (!listeners.add(listener)) {
+                return false;
+            }
+            routes = new ConcurrentHashMap<>();
+            return true;
         }
     }
 
     @Override
     public boolean removeListener(Listener listener) {
         synchronized (listeners) {
-            return listeners.remove(listener);
+            if (!listeners.remove(listener)) {
+                return false;
+            }
+            routes = new ConcurrentHashMap<>();
+            monitor.remove(listener);
+            return true;
         }
     }
 
@@ -72,22 +116,101 @@ public class ThreadedListenerManager implements ListenerManager {
 
     @Override
     public void dispatchEvent(Event event) {
+        for (Listener curListener : getRoute(event.getClass())) {
+            submitEvent(pool, curListener, event);
+        }
+    }
+
+    @Override
+    public boolean hasSubscribers(Class<? extends Event> eventClass) {
+        return !getRoute(eventClass).isEmpty();
+    }
+
+    public List<Listener> getRoute(Class<?> eventClass) {
+        Map<Class<?>, List<Listener>> routesLocal = routes;
+        List<Listener> route = routesLocal.get(eventClass);
+        if (route != null) {
+            return route;
+        }
+        ImmutableList.Builder<Listener> routeBuilder = ImmutableList.builder();
         synchronized (listeners) {
-            listeners.stream().forEach((curListener) -> {
-                submitEvent(pool, curListener, event);
-            });
+            if (routesLocal != routes) {
+                return getRoute(eventClass);
+            }
+            for (Listener curListener : listeners) {
+                if (isSubscribed(curListener, eventClass)) {
+                    routeBuilder.add(curListener);
+                }
+            }
+            route = routeBuilder.build();
+            routesLocal.put(eventClass, route);
         }
+        return route;
+    }
+
+    protected boolean isSubscribed(Listener listener, Class<?> eventClass) {
+        if (!(listener instanceof TypedListener)) {
+            return true;
+        }
+        for (Class<?> curType : ((TypedListener) listener).getEventTypes()) {
+            if (curType.isAssignableFrom(eventClass)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     protected void submitEvent(ExecutorService es, final Listener listener, final Event event) {
-        es.execute(new ManagedFutureTask(listener, event, () -> {
+        final long submitTime = System.nanoTime();
+        ManagedFutureTask task = new ManagedFutureTask(listener, event, () -> {
+            long startTime = monitor.begin(listener, event.getClass(), submitTime);
+            boolean error = false;
             try {
                 listener.onEvent(event);
             } catch (Exception e) {
+                error = true;
                 PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when executing event " + event + " on listener " + listener, e);
+            } finally {
+                monitor.end(listener, event.getClass(), startTime, error);
             }
             return null;
-        }));
+        });
+        boolean quarantined = es == pool && monitor.isQuarantined(listener);
+        Object laneKey = (es == pool && !quarantined) ? getLaneKey(listener, event) : null;
+        try {
+            if (quarantined) {
+                monitor.executeQuarantined(listener, task);
+            } else if (laneKey == null) {
+                es.execute(task);
+            } else {
+                lanes.execute(laneKey, task);
+            }
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+            throw e;
+        }
+    }
+
+    protected Object getLaneKey(Listener listener, Event event) {
+        switch (ordering) {
+            case PER_LISTENER:
+                return listener;
+            case PER_CHANNEL:
+                if (event instanceof GenericChannelEvent && ((GenericChannelEvent) event).getChannel() != null) {
+                    return Arrays.asList(listener, event.getBot(), ((GenericChannelEvent) event).getChannel().getName().toLowerCase(Locale.ENGLISH));
+                }
+                return Arrays.asList(listener, event.getBot());
+            default:
+                return null;
+        }
+    }
+
+    public Ordering getOrdering() {
+        return ordering;
+    }
+
+    public int getLaneCount() {
+        return lanes.getLaneCount();
     }
 
     @Override
@@ -106,59 +229,146 @@ public class ThreadedListenerManager implements ListenerManager {
     }
 
     public ExecutorService shutdown() {
+        monitor.shutdown();
         pool.shutdown();
         return pool;
     }
 
+    public ListenerMonitor getMonitor() {
+        return monitor;
+    }
+
+    public ExecutorService getPool() {
+        return pool;
+    }
+
     public int getManagerNumber() {
         return managerNumber;
     }
 
     @Override
     public void shutdown(PircBotY bot) {
-        synchronized (runningListeners) {
-            for (ManagedFutureTask curFuture : runningListeners.get(bot)) {
-                try {
-                    PircBotY.getLogger().log(Level.FINE, "Waiting for listener " + curFuture.getListener() + " to execute event " + curFuture.getEvent());
-                    curFuture.get();
-                } catch (InterruptedException | ExecutionException e) {
-                    throw new RuntimeException("Cannot shutdown listener " + curFuture.getListener() + " executing event " + curFuture.getEvent(), e);
-                }
+        if (!awaitDrain(bot, shutdownTimeout, TimeUnit.MILLISECONDS)) {
+            PircBotY.getLogger().log(Level.WARNING, "Timed out waiting for " + getInFlight(bot) + " listeners of bot " + bot.getBotId() + " to finish");
+        }
+    }
+
+    public boolean awaitDrain(PircBotY bot, long timeout, TimeUnit unit) {
+        InFlight inFlight = runningListeners.get(bot);
+        if (inFlight == null) {
+            return true;
+        }
+        PircBotY.getLogger().log(Level.FINE, "Waiting for " + inFlight.get() + " listeners of bot " + bot.getBotId() + " to finish");
+        try {
+            if (!inFlight.await(unit.toMillis(timeout))) {
+                return false;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for listeners of bot " + bot.getBotId() + " to finish", e);
         }
+        runningListeners.computeIfPresent(bot, (curBot, curInFlight) -> (curInFlight == inFlight && curInFlight.get() == 0) ? null : curInFlight);
+        return true;
     }
 
-    private class ManagedFutureTask extends FutureTask<Void> {
+    public int getInFlight(PircBotY bot) {
+        InFlight inFlight = runningListeners.get(bot);
+        return (inFlight == null) ? 0 : inFlight.get();
+    }
+
+    public long getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(long shutdownTimeout) {
+        Validate.isTrue(shutdownTimeout >= 0, "Shutdown timeout cannot be negative");
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    private class ManagedFutureTask extends FutureTask<Void> implements ListenerTask {
 
         private final Listener listener;
         private final Event event;
+        private final InFlight inFlight;
 
         public ManagedFutureTask(Listener listener, Event event, Callable<Void> callable) {
             super(callable);
             this.listener = listener;
             this.event = event;
-            if (event.getBot() != null) {
-                synchronized (runningListeners) {
-                    runningListeners.put(event.getBot(), this);
-                }
-            }
+            this.inFlight = (event.getBot() == null) ? null : runningListeners.compute(event.getBot(), (bot, curInFlight) -> {
+                InFlight result = (curInFlight == null) ? new InFlight() : curInFlight;
+                result.begin();
+                return result;
+            });
         }
 
         @Override
         protected void done() {
-            if (event.getBot() != null) {
-                synchronized (runningListeners) {
-                    runningListeners.remove(event.getBot(), this);
-                }
+            if (inFlight != null) {
+                inFlight.end();
             }
         }
 
+        @Override
         public Listener getListener() {
             return listener;
         }
 
+        @Override
         public Event getEvent() {
             return event;
         }
     }
+
+    private static class InFlight {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        public void begin() {
+            count.incrementAndGet();
+        }
+
+        public void end() {
+            if (count.decrementAndGet() == 0 && waiters.get() > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        public int get() {
+            return count.get();
+        }
+
+        public boolean await(long timeout) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeout;
+            waiters.incrementAndGet();
+            try {
+                synchronized (this) {
+                    while (count.get() > 0) {
+                        if (timeout <= 0) {
+                            wait();
+                            continue;
+                        }
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            return false;
+                        }
+                        wait(remaining);
+                    }
+                    return true;
+                }
+            } finally {
+                waiters.decrementAndGet();
+            }
+        }
+    }
+
+    public enum Ordering {
+
+        UNORDERED,
+        PER_LISTENER,
+        PER_CHANNEL
+    }
 }
@@ -0,0 +1,56 @@
+package net.ae97.pircboty.managers;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import net.ae97.pircboty.PircBotY;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class VirtualThreadListenerManager extends ThreadedListenerManager {
+
+    private static final AtomicInteger FALLBACK_COUNT = new AtomicInteger();
+    private static final Method VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+    public VirtualThreadListenerManager() {
+        this(Ordering.UNORDERED);
+    }
+
+    public VirtualThreadListenerManager(Ordering ordering) {
+        super(createExecutor(), ordering);
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    public static ExecutorService createExecutor() {
+        if (VIRTUAL_EXECUTOR_FACTORY != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                PircBotY.getLogger().log(Level.WARNING, "Could not create virtual thread executor, falling back to platform threads", e);
+            }
+        }
+        ThreadPoolExecutor fallbackPool = (ThreadPoolExecutor) Executors.newCachedThreadPool(new BasicThreadFactory.Builder()
+                .namingPattern("virtualFallbackPool" + FALLBACK_COUNT.getAndIncrement() + "-thread%d")
+                .daemon(true)
+                .build());
+        fallbackPool.allowCoreThreadTimeOut(true);
+        return fallbackPool;
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return !(getPool() instanceof ThreadPoolExecutor);
+    }
+}
@@ -0,0 +1,171 @@
+package net.ae97.pircboty.output;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import net.ae97.pircboty.Channel;
+import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.User;
+import org.apache.commons.lang3.Validate;
+
+public class ChannelModeBuilder {
+
+    private static final int DEFAULT_MAX_MODES = 3;
+    private final PircBotY bot;
+    private final Channel channel;
+    private final List<ModeChange> changes = new LinkedList<>();
+
+    public ChannelModeBuilder(PircBotY bot, Channel channel) {
+        this.bot = bot;
+        this.channel = channel;
+    }
+
+    public ChannelModeBuilder mode(boolean adding, char mode) {
+        return mode(adding, mode, null);
+    }
+
+    public ChannelModeBuilder mode(boolean adding, char mode, String parameter) {
+        if (parameter != null) {
+            Validate.notBlank(parameter, "Parameter for mode %s cannot be blank", mode);
+        }
+        synchronized (changes) {
+            changes.add(new ModeChange(adding, mode, parameter));
+        }
+        return this;
+    }
+
+    public ChannelModeBuilder op(User user) {
+        return userMode(true, 'o', user);
+    }
+
+    public ChannelModeBuilder deOp(User user) {
+        return userMode(false, 'o', user);
+    }
+
+    public ChannelModeBuilder voice(User user) {
+        return userMode(true, 'v', user);
+    }
+
+    public ChannelModeBuilder deVoice(User user) {
+        return userMode(false, 'v', user);
+    }
+
+    public ChannelModeBuilder halfOp(User user) {
+        return userMode(true, 'h', user);
+    }
+
+    public ChannelModeBuilder deHalfOp(User user) {
+        return userMode(false, 'h', user);
+    }
+
+    public ChannelModeBuilder owner(User user) {
+        return userMode(true, 'q', user);
+    }
+
+    public ChannelModeBuilder deOwner(User user) {
+        return userMode(false, 'q', user);
+    }
+
+    public ChannelModeBuilder superOp(User user) {
+        return userMode(true, 'a', user);
+    }
+
+    public ChannelModeBuilder deSuperOp(User user) {
+        return userMode(false, 'a', user);
+    }
+
+    public ChannelModeBuilder ban(String hostmask) {
+        Validate.notNull(hostmask, "Can't set ban on null hostmask");
+        return mode(true, 'b', hostmask);
+    }
+
+    public ChannelModeBuilder unBan(String hostmask) {
+        Validate.notNull(hostmask, "Can't remove ban on null hostmask");
+        return mode(false, 'b', hostmask);
+    }
+
+    protected ChannelModeBuilder userMode(boolean adding, char mode, User user) {
+        Validate.notNull(user, "Can't change mode %s on null user", mode);
+        return mode(adding, mode, user.getNick());
+    }
+
+    public int size() {
+        synchronized (changes) {
+            return changes.size();
+        }
+    }
+
+    public List<String> buildLines() {
+        int maxModes = bot.getServerInfo().getMaxModes() > 0 ? bot.getServerInfo().getMaxModes() : DEFAULT_MAX_MODES;
+        int realMaxLineLength = bot.getConfiguration().getMaxLineLength() - 2;
+        String prefix = "MODE " + channel.getName() + " ";
+        List<String> lines = new ArrayList<>();
+        StringBuilder modes = new StringBuilder();
+        StringBuilder parameters = new StringBuilder();
+        int parameterCount = 0;
+        Boolean lastAdding = null;
+        synchronized (changes) {
+            for (ModeChange curChange : changes) {
+                int parameterLength = (curChange.getParameter() == null) ? 0 : curChange.getParameter().length() + 1;
+                boolean full = (curChange.getParameter() != null && parameterCount >= maxModes)
+                        || prefix.length() + modes.length() + 2 + parameters.length() + parameterLength > realMaxLineLength;
+                if (modes.length() > 0 && full) {
+                    lines.add(prefix + modes + parameters);
+                    modes.setLength(0);
+                    parameters.setLength(0);
+                    parameterCount = 0;
+                    lastAdding = null;
+                }
+                if (lastAdding == null || lastAdding != curChange.isAdding()) {
+                    modes.append(curChange.isAdding() ? '+' : '-');
+                    lastAdding = curChange.isAdding();
+                }
+                modes.append(curChange.getMode());
+                if (curChange.getParameter() != null) {
+                    parameters.append(' ').append(curChange.getParameter());
+                    parameterCount++;
+                }
+            }
+        }
+        if (modes.length() > 0) {
+            lines.add(prefix + modes + parameters);
+        }
+        return lines;
+    }
+
+    public void apply() {
+        List<String> lines;
+        synchronized (changes) {
+            lines = buildLines();
+            changes.clear();
+        }
+        for (String curLine : lines) {
+            bot.sendRaw().rawLine(curLine);
+        }
+    }
+
+    private static class ModeChange {
+
+        private final boolean adding;
+        private final char mode;
+        private final String parameter;
+
+        public ModeChange(boolean adding, char mode, String parameter) {
+            this.adding = adding;
+            this.mode = mode;
+            this.parameter = parameter;
+        }
+
+        public boolean isAdding() {
+            return adding;
+        }
+
+        public char getMode() {
+            return mode;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+    }
+}
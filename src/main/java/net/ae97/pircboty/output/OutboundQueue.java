@@ -0,0 +1,275 @@
+package net.ae97.pircboty.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import net.ae97.pircboty.Configuration;
+import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.Utils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+public class OutboundQueue {
+
+    private final PircBotY bot;
+    private final Configuration<PircBotY> configuration;
+    private final LinkedList<QueuedLine> queue = new LinkedList<>();
+    private final AtomicBoolean persistPending = new AtomicBoolean();
+    private ExecutorService persistExecutor;
+    private boolean ready = false;
+    private boolean replaying = false;
+
+    public OutboundQueue(PircBotY bot) {
+        this.bot = bot;
+        this.configuration = bot.getConfiguration();
+        if (isEnabled() && configuration.getOutboundQueueFile() != null) {
+            load(configuration.getOutboundQueueFile());
+        }
+    }
+
+    public boolean isEnabled() {
+        return configuration.isOutboundQueueEnabled();
+    }
+
+    public boolean offer(String line) {
+        if (!isEnabled()) {
+            return false;
+        }
+        String command = getCommand(line);
+        synchronized (queue) {
+            if (bot.isConnected()) {
+                if (ready || !(command.equals("PRIVMSG") || command.equals("NOTICE"))) {
+                    return false;
+                }
+            } else if (command.equals("QUIT") || command.equals("PING") || command.equals("PONG")) {
+                return false;
+            }
+            removeExpired();
+            if (configuration.isOutboundQueueDeduplicate()) {
+                for (QueuedLine curLine : queue) {
+                    if (curLine.getLine().equals(line)) {
+                        return true;
+                    }
+                }
+            }
+            while (queue.size() >= configuration.getOutboundQueueMaxSize()) {
+                PircBotY.getLogger().log(Level.WARNING, "Outbound queue full, dropping " + queue.removeFirst().getLine());
+            }
+            queue.add(new QueuedLine(line, System.currentTimeMillis()));
+        }
+        requestPersist();
+        return true;
+    }
+
+    public void markDisconnected() {
+        synchronized (queue) {
+            ready = false;
+        }
+    }
+
+    public void replay() {
+        synchronized (queue) {
+            if (ready || replaying) {
+                return;
+            }
+            replaying = true;
+        }
+        scheduleReplay();
+    }
+
+    private void scheduleReplay() {
+        try {
+            bot.getSendExecutor().execute(this::replayNext);
+        } catch (RejectedExecutionException e) {
+            PircBotY.getLogger().log(Level.FINE, "Outbound queue replay was rejected", e);
+            synchronized (queue) {
+                replaying = false;
+            }
+        }
+    }
+
+    private void replayNext() {
+        QueuedLine nextLine;
+        synchronized (queue) {
+            removeExpired();
+            if (queue.isEmpty() || !bot.isConnected()) {
+                ready = bot.isConnected();
+                replaying = false;
+                nextLine = null;
+            } else {
+                nextLine = queue.getFirst();
+            }
+        }
+        if (nextLine == null) {
+            requestPersist();
+            return;
+        }
+        try {
+            bot.sendRaw().sendLine(nextLine.getLine());
+        } catch (RuntimeException e) {
+            PircBotY.getLogger().log(Level.SEVERE, "Exception encountered when replaying queued line " + nextLine.getLine(), e);
+            synchronized (queue) {
+                replaying = false;
+            }
+            return;
+        }
+        synchronized (queue) {
+            queue.remove(nextLine);
+        }
+        requestPersist();
+        scheduleReplay();
+    }
+
+    public int size() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public List<String> getQueuedLines() {
+        List<String> lines = new ArrayList<>();
+        synchronized (queue) {
+            for (QueuedLine curLine : queue) {
+                lines.add(curLine.getLine());
+            }
+        }
+        return lines;
+    }
+
+    public List<String> drain() {
+        List<String> lines = new ArrayList<>();
+        synchronized (queue) {
+            for (QueuedLine curLine : queue) {
+                lines.add(curLine.getLine());
+            }
+            queue.clear();
+        }
+        requestPersist();
+        return lines;
+    }
+
+    public void clear() {
+        synchronized (queue) {
+            queue.clear();
+        }
+        requestPersist();
+    }
+
+    private void removeExpired() {
+        if (configuration.getOutboundQueueTtl() <= 0) {
+            return;
+        }
+        long oldest = System.currentTimeMillis() - configuration.getOutboundQueueTtl();
+        Iterator<QueuedLine> queueItr = queue.iterator();
+        while (queueItr.hasNext()) {
+            QueuedLine curLine = queueItr.next();
+            if (curLine.getTimestamp() < oldest) {
+                PircBotY.getLogger().log(Level.FINE, "Outbound line expired: " + curLine.getLine());
+                queueItr.remove();
+            }
+        }
+    }
+
+    private void load(File file) {
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            for (String curLine : Files.readAllLines(file.toPath(), configuration.getEncoding())) {
+                int separator = curLine.indexOf(' ');
+                if (separator > 0) {
+                    queue.add(new QueuedLine(curLine.substring(separator + 1), Utils.tryParseLong(curLine.substring(0, separator), 0)));
+                }
+            }
+            removeExpired();
+        } catch (IOException e) {
+            PircBotY.getLogger().log(Level.SEVERE, "Could not load outbound queue from " + file, e);
+        }
+    }
+
+    private void requestPersist() {
+        if (configuration.getOutboundQueueFile() == null || !persistPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getPersistExecutor().execute(this::persist);
+        } catch (RejectedExecutionException e) {
+            persistPending.set(false);
+            PircBotY.getLogger().log(Level.SEVERE, "Could not schedule write of outbound queue", e);
+        }
+    }
+
+    private synchronized ExecutorService getPersistExecutor() {
+        if (persistExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new BasicThreadFactory.Builder()
+                    .namingPattern("bot" + bot.getBotId() + "-outboundQueue")
+                    .daemon(true)
+                    .build());
+            executor.allowCoreThreadTimeOut(true);
+            persistExecutor = executor;
+        }
+        return persistExecutor;
+    }
+
+    private void persist() {
+        persistPending.set(false);
+        File file = configuration.getOutboundQueueFile();
+        List<String> lines;
+        synchronized (queue) {
+            lines = new ArrayList<>(queue.size());
+            for (QueuedLine curLine : queue) {
+                lines.add(curLine.getTimestamp() + " " + curLine.getLine());
+            }
+        }
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.write(temp, lines, configuration.getEncoding());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            PircBotY.getLogger().log(Level.SEVERE, "Could not write outbound queue to " + file, e);
+        }
+    }
+
+    private static String getCommand(String line) {
+        int space = line.indexOf(' ');
+        return ((space == -1) ? line : line.substring(0, space)).toUpperCase(Locale.ENGLISH);
+    }
+
+    private static class QueuedLine {
+
+        private final String line;
+        private final long timestamp;
+
+        public QueuedLine(String line, long timestamp) {
+            this.line = line;
+            this.timestamp = timestamp;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package net.ae97.pircboty.output;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import net.ae97.pircboty.PircBotY;
 import org.apache.commons.lang3.StringUtils;
 
 public class OutputCAP {
 
+    private static final String REQUEST_PREFIX = "CAP REQ :";
     private final PircBotY bot;
+    private List<String> batchedRequests;
 
     public OutputCAP(PircBotY bot) {
         this.bot = bot;
     }
 
     public void requestSupported() {
-        bot.sendRaw().rawLineNow("CAP LS");
+        bot.sendRaw().rawLineNow("CAP LS 302");
     }
 
     public void requestEnabled() {
@@ -20,7 +25,43 @@ public class OutputCAP {
     }
 
     public void request(String... capability) {
-        bot.sendRaw().rawLineNow("CAP REQ :" + StringUtils.join(capability, " "));
+        synchronized (this) {
+            if (batchedRequests != null) {
+                Collections.addAll(batchedRequests, capability);
+                return;
+            }
+        }
+        bot.sendRaw().rawLineNow(REQUEST_PREFIX + StringUtils.join(capability, " "));
+    }
+
+    public synchronized void beginBatch() {
+        if (batchedRequests == null) {
+            batchedRequests = new ArrayList<>();
+        }
+    }
+
+    public void flushBatch() {
+        List<String> capabilities;
+        synchronized (this) {
+            capabilities = batchedRequests;
+            batchedRequests = null;
+        }
+        if (capabilities == null || capabilities.isEmpty()) {
+            return;
+        }
+        int realMaxLineLength = bot.getConfiguration().getMaxLineLength() - 2;
+        StringBuilder line = new StringBuilder(REQUEST_PREFIX);
+        for (String curCap : capabilities) {
+            if (line.length() > REQUEST_PREFIX.length() && line.length() + 1 + curCap.length() > realMaxLineLength) {
+                bot.sendRaw().rawLineNow(line.toString());
+                line.setLength(REQUEST_PREFIX.length());
+            }
+            if (line.length() > REQUEST_PREFIX.length()) {
+                line.append(' ');
+            }
+            line.append(curCap);
+        }
+        bot.sendRaw().rawLineNow(line.toString());
     }
 
     public void clear() {
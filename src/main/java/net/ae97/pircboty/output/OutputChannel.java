@@ -1,5 +1,7 @@
 package net.ae97.pircboty.output;
 
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import net.ae97.pircboty.Channel;
 import net.ae97.pircboty.PircBotY;
 import net.ae97.pircboty.User;
@@ -11,12 +13,50 @@ public class OutputChannel {
 
     private final PircBotY bot;
     private final Channel channel;
+    private final Object pendingModesLock = new Object();
+    private ChannelModeBuilder pendingModes;
 
     public OutputChannel(PircBotY bot, Channel channel) {
         this.bot = bot;
         this.channel = channel;
     }
 
+    public ChannelModeBuilder modes() {
+        return new ChannelModeBuilder(bot, channel);
+    }
+
+    protected void stackMode(boolean adding, char mode, String parameter) {
+        long delay = bot.getConfiguration().getModeStackDelay();
+        if (delay <= 0) {
+            modes().mode(adding, mode, parameter).apply();
+            return;
+        }
+        synchronized (pendingModesLock) {
+            if (pendingModes == null) {
+                pendingModes = modes();
+                bot.scheduleSend(() -> {
+                    try {
+                        flushModes();
+                    } catch (RuntimeException e) {
+                        PircBotY.getLogger().log(Level.SEVERE, "Could not send stacked modes for " + channel.getName(), e);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            pendingModes.mode(adding, mode, parameter);
+        }
+    }
+
+    public void flushModes() {
+        ChannelModeBuilder modesToApply;
+        synchronized (pendingModesLock) {
+            modesToApply = pendingModes;
+            pendingModes = null;
+        }
+        if (modesToApply != null) {
+            modesToApply.apply();
+        }
+    }
+
     public void part() {
         bot.sendRaw().rawLine("PART " + channel.getName());
     }
@@ -182,84 +222,84 @@ public class OutputChannel {
         if (hostmask == null) {
             throw new IllegalArgumentException("Can't set ban on null hostmask");
         }
-        bot.sendRaw().rawLine("MODE " + channel.getName() + " +b " + hostmask);
+        stackMode(true, 'b', hostmask);
     }
 
     public void unBan(String hostmask) {
         if (hostmask == null) {
             throw new IllegalArgumentException("Can't remove ban on null hostmask");
         }
-        bot.sendRaw().rawLine("MODE " + channel.getName() + " -b " + hostmask);
+        stackMode(false, 'b', hostmask);
     }
 
     public void op(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't set op on null user");
         }
-        setMode("+o " + user.getNick());
+        stackMode(true, 'o', user.getNick());
     }
 
     public void deOp(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't remove op on null user");
         }
-        setMode("-o " + user.getNick());
+        stackMode(false, 'o', user.getNick());
     }
 
     public void voice(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't set voice on null user");
         }
-        setMode("+v " + user.getNick());
+        stackMode(true, 'v', user.getNick());
     }
 
     public void deVoice(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't remove voice on null user");
         }
-        setMode("-v " + user.getNick());
+        stackMode(false, 'v', user.getNick());
     }
 
     public void halfOp(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't set halfop on null user");
         }
-        setMode("+h " + user.getNick());
+        stackMode(true, 'h', user.getNick());
     }
 
     public void deHalfOp(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't remove halfop on null user");
         }
-        setMode("-h " + user.getNick());
+        stackMode(false, 'h', user.getNick());
     }
 
     public void owner(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't set owner on null user");
         }
-        setMode("+q " + user.getNick());
+        stackMode(true, 'q', user.getNick());
     }
 
     public void deOwner(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't remove owner on null user");
         }
-        setMode("-q " + user.getNick());
+        stackMode(false, 'q', user.getNick());
     }
 
     public void superOp(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't set super op on null user");
         }
-        setMode("+a " + user.getNick());
+        stackMode(true, 'a', user.getNick());
     }
 
     public void deSuperOp(User user) {
         if (user == null) {
             throw new IllegalArgumentException("Can't remove super op on null user");
         }
-        setMode("-a " + user.getNick());
+        stackMode(false, 'a', user.getNick());
     }
 
     public void setTopic(String topic) {
@@ -279,4 +319,35 @@ public class OutputChannel {
         }
         bot.sendRaw().rawLine("KICK " + channel.getName() + " " + user.getNick() + " :" + reason);
     }
+
+    public void kick(Iterable<User> users, String reason) {
+        if (users == null) {
+            throw new IllegalArgumentException("Can't kick null users");
+        }
+        if (reason == null) {
+            throw new IllegalArgumentException("Can't kick with null reason");
+        }
+        int maxTargets = bot.getServerInfo().getMaxTargets("KICK");
+        int nickBudget = bot.getConfiguration().getMaxLineLength() - 2 - ("KICK " + channel.getName() + "  :" + reason).length();
+        StringBuilder nicks = new StringBuilder();
+        int nickCount = 0;
+        for (User curUser : users) {
+            if (curUser == null) {
+                throw new IllegalArgumentException("Can't kick null user");
+            }
+            if (nickCount > 0 && (nickCount >= maxTargets || nicks.length() + 1 + curUser.getNick().length() > nickBudget)) {
+                bot.sendRaw().rawLine("KICK " + channel.getName() + " " + nicks + " :" + reason);
+                nicks.setLength(0);
+                nickCount = 0;
+            }
+            if (nickCount > 0) {
+                nicks.append(',');
+            }
+            nicks.append(curUser.getNick());
+            nickCount++;
+        }
+        if (nickCount > 0) {
+            bot.sendRaw().rawLine("KICK " + channel.getName() + " " + nicks + " :" + reason);
+        }
+    }
 }
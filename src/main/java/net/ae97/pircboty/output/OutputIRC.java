@@ -1,6 +1,13 @@
 package net.ae97.pircboty.output;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import net.ae97.pircboty.Channel;
 import net.ae97.pircboty.PircBotY;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 public class OutputIRC {
@@ -22,6 +29,70 @@ public class OutputIRC {
         joinChannel(channel + " " + key);
     }
 
+    public void joinChannels(Map<String, String> channels) {
+        Validate.notNull(channels, "Channels cannot be null");
+        Integer joinTargetMax = bot.getServerInfo().getTargetMax().get("JOIN");
+        int maxTargets = (joinTargetMax != null) ? joinTargetMax : Integer.MAX_VALUE;
+        int realMaxLineLength = bot.getConfiguration().getMaxLineLength() - 2;
+        Map<String, Integer> remainingChannels = new HashMap<>(bot.getServerInfo().getChannelLimits());
+        for (Channel curChannel : bot.getUserChannelDao().getAllChannels()) {
+            if (bot.getUserChannelDao().isStale(curChannel)) {
+                continue;
+            }
+            String limitGroup = getChannelLimitGroup(remainingChannels, curChannel.getName());
+            if (limitGroup != null) {
+                remainingChannels.put(limitGroup, remainingChannels.get(limitGroup) - 1);
+            }
+        }
+        List<Map.Entry<String, String>> orderedChannels = new ArrayList<>(channels.size());
+        channels.entrySet().stream().filter((curEntry) -> (StringUtils.isNotEmpty(curEntry.getValue()))).forEach(orderedChannels::add);
+        channels.entrySet().stream().filter((curEntry) -> (StringUtils.isEmpty(curEntry.getValue()))).forEach(orderedChannels::add);
+        StringBuilder names = new StringBuilder();
+        StringBuilder keys = new StringBuilder();
+        int channelCount = 0;
+        for (Map.Entry<String, String> curEntry : orderedChannels) {
+            String name = curEntry.getKey();
+            String key = StringUtils.defaultString(curEntry.getValue());
+            Validate.notBlank(name, "Channel '%s' is blank", name);
+            String limitGroup = getChannelLimitGroup(remainingChannels, name);
+            if (limitGroup != null) {
+                int remaining = remainingChannels.get(limitGroup);
+                if (remaining <= 0) {
+                    PircBotY.getLogger().log(Level.WARNING, "Not joining " + name + ", server channel limit for " + limitGroup + " reached");
+                    continue;
+                }
+                remainingChannels.put(limitGroup, remaining - 1);
+            }
+            int addedLength = name.length() + 1 + (key.isEmpty() ? 0 : key.length() + 1);
+            if (channelCount > 0 && (channelCount >= maxTargets || "JOIN ".length() + names.length() + keys.length() + addedLength > realMaxLineLength)) {
+                bot.sendRaw().rawLine("JOIN " + names + keys);
+                names.setLength(0);
+                keys.setLength(0);
+                channelCount = 0;
+            }
+            if (channelCount > 0) {
+                names.append(',');
+            }
+            names.append(name);
+            if (!key.isEmpty()) {
+                keys.append(keys.length() == 0 ? ' ' : ',').append(key);
+            }
+            channelCount++;
+        }
+        if (channelCount > 0) {
+            bot.sendRaw().rawLine("JOIN " + names + keys);
+        }
+    }
+
+    private String getChannelLimitGroup(Map<String, Integer> channelLimits, String channel) {
+        for (String curGroup : channelLimits.keySet()) {
+            if (curGroup.indexOf(channel.charAt(0)) >= 0) {
+                return curGroup;
+            }
+        }
+        return null;
+    }
+
     public void partChannel(String channel) {
         Validate.notBlank(channel, "Channel '%s' is blank", channel);
         bot.sendRaw().rawLine("PART " + channel);
@@ -39,6 +110,7 @@ public class OutputIRC {
 
     public void quitServer(String reason) {
         Validate.notNull(reason, "Reason cannot be null");
+        bot.stopBotReconnect();
         bot.sendRaw().rawLine("QUIT :" + reason);
     }
 
@@ -58,6 +130,10 @@ public class OutputIRC {
         bot.sendRaw().rawLineSplit("PRIVMSG " + target + " :", message);
     }
 
+    public void message(Iterable<String> targets, String message) {
+        multiTargetLineSplit("PRIVMSG", targets, message);
+    }
+
     public void action(String target, String action) {
         Validate.notBlank(target, "Target '%s' is blank", target);
         ctcpCommand(target, "ACTION " + action);
@@ -68,6 +144,36 @@ public class OutputIRC {
         bot.sendRaw().rawLineSplit("NOTICE " + target + " :", notice);
     }
 
+    public void notice(Iterable<String> targets, String notice) {
+        multiTargetLineSplit("NOTICE", targets, notice);
+    }
+
+    protected void multiTargetLineSplit(String command, Iterable<String> targets, String message) {
+        Validate.notNull(targets, "Targets cannot be null");
+        Validate.notNull(message, "Message cannot be null");
+        int maxTargets = bot.getServerInfo().getMaxTargets(command);
+        int realMaxLineLength = bot.getConfiguration().getMaxLineLength() - 2;
+        int targetBudget = Math.max(realMaxLineLength - (command.length() + 3) - message.length(), realMaxLineLength / 2);
+        StringBuilder targetList = new StringBuilder();
+        int targetCount = 0;
+        for (String curTarget : targets) {
+            Validate.notBlank(curTarget, "Target '%s' is blank", curTarget);
+            if (targetCount > 0 && (targetCount >= maxTargets || targetList.length() + 1 + curTarget.length() > targetBudget)) {
+                bot.sendRaw().rawLineSplit(command + " " + targetList + " :", message);
+                targetList.setLength(0);
+                targetCount = 0;
+            }
+            if (targetCount > 0) {
+                targetList.append(',');
+            }
+            targetList.append(curTarget);
+            targetCount++;
+        }
+        if (targetCount > 0) {
+            bot.sendRaw().rawLineSplit(command + " " + targetList + " :", message);
+        }
+    }
+
     public void changeNick(String newNick) {
         Validate.notBlank(newNick, "Nick '%s' is blank", newNick);
         bot.sendRaw().rawLine("NICK " + newNick);
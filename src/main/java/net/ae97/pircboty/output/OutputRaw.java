@@ -1,14 +1,20 @@
 package net.ae97.pircboty.output;
 
+import java.nio.charset.Charset;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import net.ae97.pircboty.Configuration;
 import net.ae97.pircboty.PircBotY;
+import net.ae97.pircboty.User;
 import net.ae97.pircboty.Utils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 public class OutputRaw {
 
+    private static final int MAX_HOSTMASK_LENGTH = 63;
     private final PircBotY bot;
     private final ReentrantLock writeLock = new ReentrantLock(true);
     private final Condition writeNowCondition = writeLock.newCondition();
@@ -27,9 +33,13 @@ public class OutputRaw {
 
     public void rawLine(String line) {
         Validate.notNull(line, "Line cannot be null");
-        if (line == null) {
-            throw new NullPointerException("Cannot send null messages to server");
+        if (bot.getOutboundQueue().offer(line)) {
+            return;
         }
+        sendLine(line);
+    }
+
+    protected void sendLine(String line) {
         if (!bot.isConnected()) {
             throw new RuntimeException("Not connected to server");
         }
@@ -40,6 +50,9 @@ public class OutputRaw {
                 writeNowCondition.await(lastSentLine + delayNanos - curNanos, TimeUnit.NANOSECONDS);
                 curNanos = System.nanoTime();
             }
+            if (!bot.isConnected() && bot.getOutboundQueue().offer(line)) {
+                return;
+            }
             PircBotY.getLogger().info(">>> " + line);
             Utils.sendRawLineToServer(bot, line);
             lastSentLine = System.nanoTime();
@@ -72,6 +85,23 @@ public class OutputRaw {
         }
     }
 
+    public void rawLinesNow(List<String> lines) {
+        Validate.notNull(lines, "Lines cannot be null");
+        if (!bot.isConnected()) {
+            throw new RuntimeException("Not connected to server");
+        }
+        writeLock.lock();
+        try {
+            for (String curLine : lines) {
+                PircBotY.getLogger().info(">>> " + curLine);
+            }
+            Utils.sendRawLinesToServer(bot, lines);
+            lastSentLine = System.nanoTime();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     public void rawLineSplit(String prefix, String message) {
         rawLineSplit(prefix, message, "");
     }
@@ -80,19 +110,32 @@ public class OutputRaw {
         Validate.notNull(prefix, "Prefix cannot be null");
         Validate.notNull(message, "Message cannot be null");
         Validate.notNull(suffix, "Suffix cannot be null");
+        Charset encoding = bot.getConfiguration().getEncoding();
         String finalMessage = prefix + message + suffix;
-        int realMaxLineLength = bot.getConfiguration().getMaxLineLength() - 2;
-        if (!bot.getConfiguration().isAutoSplitMessage() || finalMessage.length() < realMaxLineLength) {
+        int realMaxLineLength = bot.getConfiguration().getMaxLineLength() - 2 - getRelayPrefixLength();
+        if (!bot.getConfiguration().isAutoSplitMessage() || Utils.getEncodedLength(finalMessage, encoding) <= realMaxLineLength) {
             rawLine(finalMessage);
             return;
         }
-        int maxMessageLength = realMaxLineLength - (prefix + suffix).length();
-        int iterations = (int) Math.ceil(message.length() / (double) maxMessageLength);
-        for (int i = 0; i < iterations; i++) {
-            int endPoint = (i != iterations - 1) ? ((i + 1) * maxMessageLength) : message.length();
-            String curMessagePart = prefix + message.substring(i * maxMessageLength, endPoint) + suffix;
-            rawLine(curMessagePart);
+        int maxMessageLength = Math.max(realMaxLineLength - Utils.getEncodedLength(prefix, encoding) - Utils.getEncodedLength(suffix, encoding), 1);
+        for (String curMessagePart : Utils.splitByEncodedLength(message, maxMessageLength, encoding, bot.getConfiguration().getLocale())) {
+            rawLine(prefix + curMessagePart + suffix);
+        }
+    }
+
+    protected int getRelayPrefixLength() {
+        Configuration<PircBotY> configuration = bot.getConfiguration();
+        String nick = StringUtils.defaultIfEmpty(bot.getNick(), bot.getRegistrationNick());
+        String login = configuration.getLogin();
+        int hostmaskLength = MAX_HOSTMASK_LENGTH;
+        if (bot.getUserChannelDao() != null && bot.getUserChannelDao().userExists(nick)) {
+            User userBot = bot.getUserChannelDao().getUser(nick);
+            if (StringUtils.isNotEmpty(userBot.getHostmask())) {
+                hostmaskLength = Utils.getEncodedLength(userBot.getHostmask(), configuration.getEncoding());
+                login = StringUtils.defaultIfEmpty(userBot.getLogin(), login);
+            }
         }
+        return (":" + nick + "!" + login + "@ ").length() + hostmaskLength;
     }
 
     public int getOutgoingQueueSize() {
@@ -2,15 +2,15 @@ package net.ae97.pokebot;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.InetAddress;
 import java.nio.charset.Charset;
+import java.security.cert.CertificateException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.net.ssl.SSLSocketFactory;
 import net.ae97.pircboty.Channel;
 import net.ae97.pircboty.Configuration.Builder;
 import net.ae97.pircboty.PircBotY;
 import net.ae97.pircboty.User;
+import net.ae97.pircboty.UtilSSLSocketFactory;
 import net.ae97.pircboty.exception.IrcException;
 import net.ae97.pokebot.config.Configuration;
 import net.ae97.pokebot.config.impl.JsonConfiguration;
@@ -47,9 +47,13 @@ public class PokeBotCore {
                 .setIdentServerIP(globalSettings.getString("ident.ip", "localhost"))
                 .setIdentServerPort(globalSettings.getInt("ident.port", 113));
         if (globalSettings.getBoolean("ssl")) {
-            botConfigBuilder.setSocketFactory(SSLSocketFactory.getDefault());
+            try {
+                botConfigBuilder.setSocketFactory(new UtilSSLSocketFactory(botConfigBuilder.getServerHostname()));
+            } catch (CertificateException e) {
+                throw new IOException("Could not create SSL socket factory", e);
+            }
         }
-        botConfigBuilder.setLocalAddress(InetAddress.getByName(globalSettings.getString("bind-ip", "0.0.0.0")));
+        botConfigBuilder.setLocalAddress(botConfigBuilder.getHostResolver().resolveFirst(globalSettings.getString("bind-ip", "0.0.0.0")));
         if (!globalSettings.getStringList("channels").isEmpty()) {
             globalSettings.getStringList("channels").stream().forEach((chan) -> {
                 botConfigBuilder.addAutoJoinChannel(chan);